@@ -0,0 +1,141 @@
+package com.nisum.benchmark;
+
+import com.nisum.ApiUserManagement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of admission control: while one address floods the registration
+ * endpoint with {@code floodRate} requests per second (at most
+ * {@value #FLOOD_IN_FLIGHT} in flight), the benchmark measures the latency of
+ * registrations from well-behaved clients spread over other addresses.
+ * <p>
+ * With {@code admission=on} the flood is answered with 429 before any hash
+ * is computed, so legitimate registrations only wait for their own hash;
+ * with {@code admission=off} they queue behind the flood's hashes, or are
+ * rejected with 503 once the hashing queue is full. Client addresses are
+ * simulated with {@code X-Forwarded-For}, which Tomcat trusts from
+ * localhost with {@code server.forward-headers-strategy=native}.
+ * </p>
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AdmissionControlBenchmark {
+
+    private static final int FLOOD_IN_FLIGHT = 64;
+    private static final String FLOOD_ADDRESS = "203.0.113.7";
+    private static final int LEGITIMATE_ADDRESSES = 250;
+
+    @Param({"on", "off"})
+    private String admission;
+
+    @Param({"200"})
+    private int floodRate;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private URI registerUri;
+    private volatile boolean flooding;
+    private final AtomicLong emails = new AtomicLong();
+    private final AtomicLong legitimateRequests = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(ApiUserManagement.class,
+                "--server.port=0",
+                "--server.forward-headers-strategy=native",
+                "--admission.enabled=" + admission.equals("on"),
+                "--spring.datasource.url=jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.stat=WARN",
+                "--logging.level.org.hibernate.type=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        registerUri = URI.create("http://localhost:" + port + "/users/register");
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        flooding = true;
+        clientExecutor.submit(this::flood);
+    }
+
+    /**
+     * Sends flood requests at {@code floodRate} without waiting for their
+     * responses, like an open-loop client, up to {@value #FLOOD_IN_FLIGHT} at a time.
+     */
+    private Void flood() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(FLOOD_IN_FLIGHT);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / floodRate;
+        long next = System.nanoTime();
+        while (flooding) {
+            inFlight.acquire();
+            httpClient.sendAsync(registerRequest(FLOOD_ADDRESS), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> inFlight.release());
+            next += intervalNanos;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+        return null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flooding = false;
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int legitimateRegistration() throws Exception {
+        String clientAddress = "198.51.100." + (legitimateRequests.incrementAndGet() % LEGITIMATE_ADDRESSES);
+        return httpClient.send(registerRequest(clientAddress), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest registerRequest(String clientAddress) {
+        String body = "{\"name\":\"Load User\",\"email\":\"load" + emails.incrementAndGet()
+                + "@example.com\",\"password\":\"password123\",\"phones\":[]}";
+        return HttpRequest.newBuilder(registerUri)
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", clientAddress)
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.nisum.benchmark;
+
+import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.service.impl.UserServiceImpl;
+import com.nisum.utils.EmailValidator;
+import com.nisum.utils.JwtUtil;
+import com.nisum.utils.MessagesHelper;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the application components used by the benchmarks outside of a
+ * Spring context, configured with the same values as {@code application.yml}.
+ *
+ * @author avasquez
+ */
+final class BenchmarkFixtures {
+
+    static final String EMAIL_REGEX = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$";
+    static final String JWT_SECRET = "f37c75591c6ca2e8ee650f09f275086ec822986ac19f4d69a812c2e3c199065f";
+    static final int JWT_EXPIRATION_HOURS = 720;
+
+    private BenchmarkFixtures() {
+    }
+
+    static MessagesHelper messagesHelper() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        MessagesHelper messagesHelper = new MessagesHelper();
+        inject(messagesHelper, "messageSource", messageSource);
+        return messagesHelper;
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        inject(jwtUtil, "secretKey", JWT_SECRET);
+        inject(jwtUtil, "expirationHours", JWT_EXPIRATION_HOURS);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static <T extends UserServiceImpl> T userService(T userService) {
+        inject(userService, "emailValidator", new EmailValidator(EMAIL_REGEX));
+        inject(userService, "messagesHelper", messagesHelper());
+        inject(userService, "jwtUtil", jwtUtil());
+        return userService;
+    }
+
+    static UserRequestDTO request(String email, int phones) {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Benchmark User");
+        userRequestDTO.setEmail(email);
+        userRequestDTO.setPassword("password123");
+        List<PhoneDTO> phoneDTOs = new ArrayList<>(phones);
+        for (int i = 0; i < phones; i++) {
+            PhoneDTO phoneDTO = new PhoneDTO();
+            phoneDTO.setNumber("12345678" + i);
+            phoneDTO.setCitycode("1");
+            phoneDTO.setCountrycode("57");
+            phoneDTOs.add(phoneDTO);
+        }
+        userRequestDTO.setPhones(phoneDTOs);
+        return userRequestDTO;
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + fieldName + " in " + target.getClass());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
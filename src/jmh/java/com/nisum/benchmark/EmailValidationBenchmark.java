@@ -0,0 +1,83 @@
+package com.nisum.benchmark;
+
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.service.impl.UserServiceImpl;
+import com.nisum.utils.EmailValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of email validation and normalization:
+ * <ul>
+ *     <li>{@code recompiledPattern}: the former approach, compiling {@code regex.email} on every call</li>
+ *     <li>{@code precompiledPattern}: the pattern compiled once, as used for custom expressions</li>
+ *     <li>{@code singlePassValidator}: the {@code EmailValidator} scanner used for the stock expression</li>
+ *     <li>{@code serviceValidateEmail}: {@code UserServiceImpl.validateEmail}, including the
+ *     exception built for invalid addresses</li>
+ * </ul>
+ * Run with {@code -prof gc} to compare allocation per call.
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidationBenchmark {
+
+    @Param({"john.doe+news@mail.example.com", "John.Doe@Example.COM", "john.doe@mail"})
+    private String email;
+
+    private Pattern pattern;
+    private EmailValidator emailValidator;
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        pattern = Pattern.compile(BenchmarkFixtures.EMAIL_REGEX);
+        emailValidator = new EmailValidator(BenchmarkFixtures.EMAIL_REGEX);
+        userService = BenchmarkFixtures.userService(new UserServiceImpl());
+    }
+
+    @Benchmark
+    public boolean recompiledPattern() {
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        return Pattern.compile(BenchmarkFixtures.EMAIL_REGEX).matcher(normalized).matches();
+    }
+
+    @Benchmark
+    public boolean precompiledPattern() {
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        return pattern.matcher(normalized).matches();
+    }
+
+    @Benchmark
+    public String singlePassValidator() {
+        return emailValidator.normalize(email);
+    }
+
+    @Benchmark
+    public void serviceValidateEmail(Blackhole blackhole) {
+        try {
+            userService.validateEmail(email);
+        } catch (InvalidEmailException ex) {
+            blackhole.consume(ex);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.nisum.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.exception.BusinessException;
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.utils.ErrorResponses;
+import com.nisum.utils.MessagesHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of the error path of a rejected registration, from the throw
+ * to the serialized JSON body, thrown {@code stackDepth} frames below the
+ * handler to stand in for the servlet, security and Spring MVC frames of a
+ * real request.
+ * <p>
+ * {@code fullStackTrace} reproduces the previous path: an exception with a
+ * stack trace, its message asked from the {@code MessageSource} on each throw,
+ * and a fresh map serialized by the {@code ObjectMapper}.
+ * {@code stacklessPreSerialized} is the current one: a
+ * {@link BusinessException} without stack trace and a body from
+ * {@link ErrorResponses}.
+ * </p>
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final String MESSAGE_KEY = "email.invalid";
+
+    @Param({"20", "150"})
+    private int stackDepth;
+
+    private ResourceBundleMessageSource messageSource;
+    private ObjectMapper objectMapper;
+    private ErrorResponses errorResponses;
+
+    /**
+     * The exceptions as they were before {@link BusinessException}.
+     */
+    private static class StackTraceException extends RuntimeException {
+
+        StackTraceException(String message) {
+            super(message);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        MessagesHelper messagesHelper = new MessagesHelper();
+        BenchmarkFixtures.inject(messagesHelper, "messageSource", messageSource);
+        errorResponses = new ErrorResponses();
+        BenchmarkFixtures.inject(errorResponses, "messagesHelper", messagesHelper);
+        BenchmarkFixtures.inject(errorResponses, "objectMapper", objectMapper);
+    }
+
+    @Benchmark
+    public byte[] fullStackTrace() throws Exception {
+        try {
+            throwAt(stackDepth, () -> new StackTraceException(
+                    messageSource.getMessage(MESSAGE_KEY, null, MessagesHelper.DEFAULT_LOCALE)));
+            throw new IllegalStateException("not thrown");
+        } catch (StackTraceException ex) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", ex.getMessage());
+            return objectMapper.writeValueAsBytes(error);
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessPreSerialized() {
+        try {
+            throwAt(stackDepth, InvalidEmailException::new);
+            throw new IllegalStateException("not thrown");
+        } catch (BusinessException ex) {
+            return errorResponses.body(ex.getMessageKey(), MessagesHelper.DEFAULT_LOCALE);
+        }
+    }
+
+    private static void throwAt(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAt(depth - 1, exception);
+    }
+}
@@ -0,0 +1,128 @@
+package com.nisum.benchmark;
+
+import com.nisum.entity.id.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Insert throughput of the primary key strategies, measured as the time to
+ * insert {@code rows} rows into a file-backed H2 table with a small page cache,
+ * so the primary key index does not fit in memory:
+ * <ul>
+ *     <li>{@code UUID_V4}: random UUIDs, as produced by {@code GenerationType.AUTO} before</li>
+ *     <li>{@code UUID_V7}: time-ordered UUIDs from {@link UuidV7Generator}</li>
+ *     <li>{@code SEQUENCE_PER_ROW}: one sequence call per row ({@code allocationSize = 1})</li>
+ *     <li>{@code SEQUENCE_POOLED}: one sequence call per 50 rows, as the pooled-lo optimizer does</li>
+ * </ul>
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int POOL_SIZE = 50;
+
+    @Param({"UUID_V4", "UUID_V7", "SEQUENCE_PER_ROW", "SEQUENCE_POOLED"})
+    private String strategy;
+
+    @Param({"1000000"})
+    private int rows;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("id-benchmark");
+        connection = DriverManager.getConnection(
+                "jdbc:h2:file:" + directory.resolve("db") + ";CACHE_SIZE=8192", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            if (strategy.startsWith("UUID")) {
+                statement.execute("CREATE TABLE users (id UUID PRIMARY KEY, email VARCHAR(320))");
+            } else {
+                statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(320))");
+                statement.execute("CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY "
+                        + (strategy.equals("SEQUENCE_POOLED") ? POOL_SIZE : 1));
+            }
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int insertRows() throws SQLException {
+        long nextId = 0;
+        long poolEnd = 0;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users (id, email) VALUES (?, ?)");
+             PreparedStatement sequence = strategy.startsWith("SEQUENCE")
+                     ? connection.prepareStatement("SELECT NEXT VALUE FOR users_seq") : null) {
+            for (int i = 0; i < rows; i++) {
+                switch (strategy) {
+                    case "UUID_V4" -> insert.setObject(1, UUID.randomUUID());
+                    case "UUID_V7" -> insert.setObject(1, UuidV7Generator.next());
+                    case "SEQUENCE_PER_ROW" -> insert.setLong(1, nextValue(sequence));
+                    default -> {
+                        if (nextId == poolEnd) {
+                            nextId = nextValue(sequence);
+                            poolEnd = nextId + POOL_SIZE;
+                        }
+                        insert.setLong(1, nextId++);
+                    }
+                }
+                insert.setString(2, "user" + i + "@example.com");
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+
+    private static long nextValue(PreparedStatement sequence) throws SQLException {
+        try (ResultSet resultSet = sequence.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.nisum.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing a {@code UserResponseDTO} to JSON with an
+ * {@code ObjectMapper} configured like Spring Boot's default one.
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter responseWriter;
+    private UserResponseDTO response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(UserResponseDTO.class);
+
+        PhoneDTO phoneDTO = new PhoneDTO();
+        phoneDTO.setNumber("123456789");
+        phoneDTO.setCitycode("1");
+        phoneDTO.setCountrycode("57");
+
+        LocalDateTime now = LocalDateTime.now();
+        response = new UserResponseDTO();
+        response.setId(UUID.randomUUID());
+        response.setCreated(now);
+        response.setModified(now);
+        response.setLastLogin(now);
+        response.setName("Benchmark User");
+        response.setEmail("john.doe@example.com");
+        response.setEncryptedPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3GZ3mQ2bKzXQfH1pOaR9n3W");
+        response.setToken(BenchmarkFixtures.jwtUtil().generateToken("john.doe@example.com"));
+        response.setActive(true);
+        response.setPhones(List.of(phoneDTO));
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] prebuiltWriter() throws Exception {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,196 @@
+package com.nisum.benchmark;
+
+import com.nisum.ApiUserManagement;
+import com.nisum.entity.Phone;
+import com.nisum.entity.User;
+import com.nisum.repository.UserRepository;
+import com.nisum.utils.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test comparing platform and virtual request threads: {@code clients}
+ * concurrent clients each send one request to the running application, and
+ * the benchmark measures how long it takes until every response has arrived.
+ * <ul>
+ *     <li>{@code concurrentLookups}: {@code GET /users/{id}}. The user cache is
+ *     disabled, so every request reads the user and its phones from H2 through
+ *     the database bulkhead.</li>
+ *     <li>{@code concurrentRegistrations}: {@code POST /users/register} of a new
+ *     user. The password is hashed on the hashing pool at BCrypt cost
+ *     {@value #BCRYPT_COST}, and the token is signed under the CPU bulkhead.
+ *     The hashing queue holds every client, so none is answered with 503.</li>
+ * </ul>
+ * <p>
+ * With platform threads Tomcat serves at most {@code server.tomcat.threads.max}
+ * requests at a time and queues the rest; with virtual threads every request
+ * is accepted at once and waits on the bulkheads instead. Admission control
+ * is disabled, as every client shares one address. At 10k clients the
+ * client and server sockets of this single process need about 20k file
+ * descriptors, so raise {@code ulimit -n} accordingly.
+ * </p>
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadingModeBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private static final int BCRYPT_COST = 6;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"1000", "5000", "10000"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private List<URI> userUris;
+    private URI registerUri;
+    private String authorization;
+    private final AtomicLong registrations = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(ApiUserManagement.class,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+                "--spring.datasource.url=jdbc:h2:mem:threading;DB_CLOSE_DELAY=-1",
+                "--server.tomcat.max-connections=" + (clients + 1_000),
+                "--server.tomcat.accept-count=" + clients,
+                "--users.cache.max-size=0",
+                "--admission.enabled=false",
+                "--hashing.bcrypt.cost=" + BCRYPT_COST,
+                "--hashing.pool.queue-capacity=" + clients,
+                "--bulkhead.cpu.max-wait-ms=120000",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.stat=WARN",
+                "--logging.level.org.hibernate.type=WARN");
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            Phone phone = new Phone();
+            phone.setNumber("555" + i);
+            phone.setCityCode("1");
+            phone.setCountryCode("57");
+            User user = new User();
+            user.setName("Load User " + i);
+            user.setEmail("load" + i + "@example.com");
+            user.setPassword("hash");
+            user.setCreated(LocalDateTime.now());
+            user.setActive(true);
+            user.setPhones(new ArrayList<>(List.of(phone)));
+            users.add(user);
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        userUris = new ArrayList<>(USERS);
+        for (User user : userRepository.saveAll(users)) {
+            UUID id = user.getId();
+            userUris.add(URI.create("http://localhost:" + port + "/users/" + id));
+        }
+        registerUri = URI.create("http://localhost:" + port + "/users/register");
+        authorization = "Bearer " + context.getBean(JwtUtil.class).generateToken("load@example.com");
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int concurrentLookups() {
+        List<HttpRequest> requests = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            requests.add(HttpRequest.newBuilder(userUris.get(i % USERS))
+                    .header("Authorization", authorization)
+                    .timeout(Duration.ofMinutes(2))
+                    .build());
+        }
+        return sendAll(requests);
+    }
+
+    @Benchmark
+    public int concurrentRegistrations() {
+        List<HttpRequest> requests = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            String body = "{\"name\":\"Registered User\",\"email\":\"register"
+                    + registrations.incrementAndGet() + "@example.com\",\"password\":\"password123\",\"phones\":[]}";
+            requests.add(HttpRequest.newBuilder(registerUri)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofMinutes(2))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+        }
+        return sendAll(requests);
+    }
+
+    /**
+     * Sends every request at once and waits for all the responses.
+     *
+     * @return the number of 200 responses, which is every request
+     * @throws IllegalStateException if any request failed
+     */
+    private int sendAll(List<HttpRequest> requests) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != clients) {
+            throw new IllegalStateException((clients - ok) + " of " + clients + " requests failed");
+        }
+        return ok;
+    }
+}
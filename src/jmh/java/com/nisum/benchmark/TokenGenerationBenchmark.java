@@ -0,0 +1,61 @@
+package com.nisum.benchmark;
+
+import com.nisum.utils.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second of {@code JwtUtil.generateToken}, backed by the
+ * {@code Hs256TokenEngine}, against the former jjwt builder call.
+ * Run with {@code -prof gc} to compare allocation per token.
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+    private static final String SUBJECT = "john.doe@example.com";
+
+    private JwtUtil jwtUtil;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil();
+    }
+
+    @Benchmark
+    public String tokenEngine() {
+        return jwtUtil.generateToken(SUBJECT);
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        return Jwts.builder()
+                .setSubject(SUBJECT)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis()
+                        + 1000L * 60 * 60 * BenchmarkFixtures.JWT_EXPIRATION_HOURS))
+                .signWith(SignatureAlgorithm.HS256, BenchmarkFixtures.JWT_SECRET)
+                .compact();
+    }
+}
@@ -0,0 +1,78 @@
+package com.nisum.benchmark;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.entity.User;
+import com.nisum.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the stream-based mappings between DTOs and entities done by
+ * {@code convertToUserEntity} and {@code convertToUserResponseDTO}.
+ *
+ * @author avasquez
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    @Param({"0", "3"})
+    private int phones;
+
+    private Mapper mapper;
+    private UserRequestDTO request;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        mapper = BenchmarkFixtures.userService(new Mapper());
+        request = BenchmarkFixtures.request("john.doe@example.com", phones);
+        user = mapper.toEntity(request);
+        user.setId(UUID.randomUUID());
+        user.setCreated(LocalDateTime.now());
+        user.setModified(user.getCreated());
+        user.setLastLogin(user.getCreated());
+        user.setActive(true);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public UserResponseDTO toResponse() {
+        return mapper.toResponse(user);
+    }
+
+    /**
+     * Exposes the protected conversion methods of {@code UserServiceImpl}.
+     */
+    static class Mapper extends UserServiceImpl {
+        User toEntity(UserRequestDTO userRequestDTO) {
+            return convertToUserEntity(userRequestDTO);
+        }
+
+        UserResponseDTO toResponse(User user) {
+            return convertToUserResponseDTO(user);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nisum.load;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application under measurement, running in its own JVM on a free port.
+ * <p>
+ * The output of the process goes to a log file, which failures point to.
+ * Closing it stops the process, forcibly if it has not exited gracefully
+ * within 30 seconds.
+ * </p>
+ *
+ * @author avasquez
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+    private final Process process;
+    private final int port;
+    private final Path log;
+
+    private ApplicationProcess(Process process, int port, Path log) {
+        this.process = process;
+        this.port = port;
+        this.log = log;
+    }
+
+    /**
+     * Starts the application, adding {@code --server.port} to its command.
+     *
+     * @param command    the command starting the application
+     * @param workingDir the working directory of the process
+     * @param log        the file receiving the output of the process
+     * @return the started application, not necessarily listening yet
+     * @throws IOException if no port is free or the process cannot be started
+     */
+    static ApplicationProcess start(List<String> command, Path workingDir, Path log) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> portCommand = new ArrayList<>(command);
+        portCommand.add("--server.port=" + port);
+        Process process = new ProcessBuilder(portCommand)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ApplicationProcess(process, port, log);
+    }
+
+    /**
+     * Waits until the application accepts connections.
+     *
+     * @param timeout how long to wait
+     * @throws IllegalStateException if the application exits or is not listening in time
+     */
+    void awaitPort(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 100);
+                return;
+            } catch (IOException ex) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("Application not listening after " + timeout + ", see " + log);
+    }
+
+    URI baseUri() {
+        return URI.create("http://localhost:" + port);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
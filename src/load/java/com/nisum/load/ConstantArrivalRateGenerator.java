@@ -0,0 +1,101 @@
+package com.nisum.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: starts calls at a constant rate, whether or not
+ * the previous ones have completed.
+ * <p>
+ * Call {@code i} is scheduled at {@code start + i / rate} and sent from its
+ * own virtual thread, so a slow server makes calls pile up instead of
+ * slowing the arrivals down, as real users keep arriving regardless of how
+ * the server copes. A closed model, where each client waits for its response
+ * before sending the next request, would instead lower the load as soon as
+ * the server slows down and understate its latencies.
+ * </p>
+ * <p>
+ * At most {@code maxInFlight} calls are outstanding; a call arriving beyond
+ * that is not sent and is counted as dropped, so an overloaded server shows
+ * in the report instead of exhausting the generator's memory.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class ConstantArrivalRateGenerator {
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+
+    /**
+     * Creates the generator.
+     *
+     * @param httpClient  the client sending the calls
+     * @param maxInFlight the maximum number of outstanding calls
+     */
+    public ConstantArrivalRateGenerator(HttpClient httpClient, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sends the calls of a scenario at a constant rate, then waits for the
+     * outstanding ones.
+     *
+     * @param scenario the source of the calls
+     * @param report   where the outcomes are recorded
+     * @param rate     the calls started per second
+     * @param duration the time during which calls are started
+     * @return the time from the first call to the last response, in seconds
+     */
+    public double run(Scenario scenario, LoadReport report, double rate, Duration duration) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long calls = (long) (duration.toNanos() / (double) interval);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < calls; i++) {
+                long intended = start + i * interval;
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                Scenario.Call call = scenario.next();
+                if (!inFlight.tryAcquire()) {
+                    report.dropped();
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        send(scenario, report, call, intended);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void send(Scenario scenario, LoadReport report, Scenario.Call call, long intended) {
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(call.request(), HttpResponse.BodyHandlers.discarding());
+            long completed = System.nanoTime();
+            int status = response.statusCode();
+            report.completed(call.kind(), intended, sent, completed, status, status == call.expectedStatus());
+            scenario.completed(call, status);
+        } catch (IOException ex) {
+            report.failed();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            report.failed();
+        }
+    }
+}
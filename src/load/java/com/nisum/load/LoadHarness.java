@@ -0,0 +1,175 @@
+package com.nisum.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the application on a free port against an in-memory H2 database
+ * and measures it under an open-model load, once per serving stack.
+ * <p>
+ * The stacks are the servlet application ({@code mvc}, Spring MVC on
+ * Tomcat with JPA) and the reactive serving mode ({@code reactive}, WebFlux
+ * on Netty with R2DBC). Each one runs in its own JVM, started with the same
+ * JVM options and processor count and measured with the same request mix,
+ * rate and seed, one after the other, so their results are comparable.
+ * </p>
+ * <p>
+ * Arguments are {@code key=value} pairs, any argument starting with
+ * {@code --} is passed to the application:
+ * </p>
+ * <ul>
+ *     <li>{@code stacks}: stacks measured, comma separated ({@code mvc,reactive})</li>
+ *     <li>{@code rate}: calls started per second (50)</li>
+ *     <li>{@code duration}: seconds measured (30)</li>
+ *     <li>{@code warmup}: seconds of load sent first and not measured (10)</li>
+ *     <li>{@code duplicates}: fraction of registrations of an already registered email (0.1)</li>
+ *     <li>{@code invalid}: fraction of registrations with a malformed email (0.05)</li>
+ *     <li>{@code max-in-flight}: outstanding calls beyond which arrivals are dropped (2000)</li>
+ *     <li>{@code seed}: seed of the request mix (42)</li>
+ *     <li>{@code jvm-args}: options of the application JVMs, space separated</li>
+ *     <li>{@code cpus}: processors the application JVMs may use (all)</li>
+ *     <li>{@code java}, {@code mvc-classpath} and {@code reactive-classpath}:
+ *     the JVM and the classpath of each stack</li>
+ *     <li>{@code output}: report directory ({@code build/reports/load})</li>
+ *     <li>{@code version}: version recorded in the summary</li>
+ * </ul>
+ * <p>
+ * Admission control is disabled, as the whole load comes from a single
+ * client address; pass {@code --admission.enabled=true} to measure it in
+ * the {@code mvc} stack. The harness is run by {@code ./gradlew loadTest},
+ * see {@link LoadReport} for what it writes for each stack; the key figures
+ * of all stacks are also written side by side to {@code comparison.json}.
+ * </p>
+ *
+ * @author avasquez
+ */
+public final class LoadHarness {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private static final Map<String, String> MAIN_CLASSES = Map.of(
+            "mvc", "com.nisum.ApiUserManagement",
+            "reactive", "com.nisum.reactive.ReactiveUserManagement");
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--admission.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.stat=WARN",
+                "--logging.level.org.hibernate.type=WARN"));
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+            } else {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected key=value, got " + arg);
+                }
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        List<String> stacks = Arrays.asList(options.getOrDefault("stacks", "mvc,reactive").split(","));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        double duplicates = Double.parseDouble(options.getOrDefault("duplicates", "0.1"));
+        double invalid = Double.parseDouble(options.getOrDefault("invalid", "0.05"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Path output = Path.of(options.getOrDefault("output", "build/reports/load"));
+
+        List<String> jvmArgs = new ArrayList<>(List.of(options.getOrDefault("jvm-args", "").trim().split("\\s+")));
+        jvmArgs.removeIf(String::isEmpty);
+        if (options.containsKey("cpus")) {
+            jvmArgs.add("-XX:ActiveProcessorCount=" + options.get("cpus"));
+        }
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        comparison.put("version", options.getOrDefault("version", "unknown"));
+        comparison.put("rate", rate);
+        comparison.put("jvmArgs", jvmArgs);
+        for (String stack : stacks) {
+            String mainClass = MAIN_CLASSES.get(stack);
+            if (mainClass == null) {
+                throw new IllegalArgumentException("Unknown stack: " + stack);
+            }
+            String classpath = options.get(stack + "-classpath");
+            if (classpath == null) {
+                throw new IllegalArgumentException("Missing " + stack + "-classpath");
+            }
+            List<String> command = new ArrayList<>(List.of(options.getOrDefault("java", "java")));
+            command.addAll(jvmArgs);
+            command.addAll(List.of("-cp", classpath, mainClass));
+            command.addAll(appArgs);
+
+            Path directory = output.resolve(stack);
+            Files.createDirectories(directory);
+            System.out.printf("Starting %s%n", stack);
+            try (ApplicationProcess application = ApplicationProcess.start(command, directory,
+                    directory.resolve("application.log"));
+                 HttpClient httpClient = HttpClient.newBuilder()
+                         .executor(Executors.newVirtualThreadPerTaskExecutor())
+                         .connectTimeout(Duration.ofSeconds(10))
+                         .build()) {
+                application.awaitPort(STARTUP_TIMEOUT);
+                Scenario scenario = new RegistrationScenario(application.baseUri(), duplicates, invalid, seed);
+                ConstantArrivalRateGenerator generator = new ConstantArrivalRateGenerator(httpClient, maxInFlight);
+
+                if (!warmup.isZero()) {
+                    System.out.printf("Warming up for %ds at %.0f calls/s%n", warmup.toSeconds(), rate);
+                    generator.run(scenario, new LoadReport(), rate, warmup);
+                }
+                System.out.printf("Measuring %s on %s for %ds at %.0f calls/s%n",
+                        scenario.name(), stack, duration.toSeconds(), rate);
+                LoadReport report = new LoadReport();
+                double seconds = generator.run(scenario, report, rate, duration);
+
+                Map<String, Object> run = new LinkedHashMap<>();
+                run.put("version", options.getOrDefault("version", "unknown"));
+                run.put("stack", stack);
+                run.put("scenario", scenario.name());
+                run.put("rate", rate);
+                run.put("duplicates", duplicates);
+                run.put("invalid", invalid);
+                run.put("seed", seed);
+                run.put("jvmArgs", jvmArgs);
+                Path scenarioDirectory = directory.resolve(scenario.name());
+                Map<String, Object> summary = report.write(scenarioDirectory, run, seconds);
+                System.out.printf("Completed %s calls in %.1fs (%s/s), %s unexpected, %s errors, %s dropped%n",
+                        summary.get("completed"), seconds, summary.get("throughput"), summary.get("unexpected"),
+                        summary.get("errors"), summary.get("dropped"));
+                System.out.println("Response time (ms): " + summary.get("responseMs"));
+                System.out.println("Service time (ms):  " + summary.get("serviceMs"));
+                System.out.println("Reports written to " + scenarioDirectory.toAbsolutePath());
+
+                Map<String, Object> figures = new LinkedHashMap<>();
+                for (String key : List.of("throughput", "completed", "unexpected", "errors", "dropped",
+                        "responseMs", "serviceMs")) {
+                    figures.put(key, summary.get(key));
+                }
+                comparison.put(stack, figures);
+            }
+        }
+        Path comparisonFile = output.resolve("comparison.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(comparisonFile.toFile(), comparison);
+        System.out.println("Comparison written to " + comparisonFile.toAbsolutePath());
+    }
+}
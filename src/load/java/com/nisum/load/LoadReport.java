@@ -0,0 +1,169 @@
+package com.nisum.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes recorded during a load run.
+ * <p>
+ * Two latencies are recorded per call, in microseconds: the response time,
+ * from the moment the call was scheduled to start, and the service time,
+ * from the moment it was actually sent. When the generator or the server
+ * falls behind, calls are sent late and only the response time shows the
+ * wait, which is what a user of an open system experiences; reporting the
+ * service time alone would hide it (coordinated omission).
+ * </p>
+ * <p>
+ * {@link #write(Path, Map, double)} writes each histogram as an HdrHistogram
+ * percentile distribution ({@code .hgrm}, readable by the HdrHistogram
+ * plotter) and a {@code summary.json} with stable keys, meant to be diffed
+ * between builds.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class LoadReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Kind> kinds = new ConcurrentHashMap<>();
+    private final Kind all = new Kind();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Outcomes of one kind of call.
+     */
+    private static final class Kind {
+        private final Histogram response = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        private final Histogram service = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder unexpected = new LongAdder();
+
+        private void record(long responseMicros, long serviceMicros, int status, boolean expected) {
+            response.recordValue(Math.min(responseMicros, HIGHEST_MICROS));
+            service.recordValue(Math.min(serviceMicros, HIGHEST_MICROS));
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (!expected) {
+                unexpected.increment();
+            }
+        }
+    }
+
+    /**
+     * Records a completed call.
+     *
+     * @param kind           the kind of call
+     * @param intendedNanos  the time the call was scheduled to start
+     * @param sentNanos      the time the call was sent
+     * @param completedNanos the time the response was received
+     * @param status         the status received
+     * @param expected       whether the status is the one expected
+     */
+    public void completed(String kind, long intendedNanos, long sentNanos, long completedNanos,
+                          int status, boolean expected) {
+        long responseMicros = TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos);
+        long serviceMicros = TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos);
+        kinds.computeIfAbsent(kind, key -> new Kind()).record(responseMicros, serviceMicros, status, expected);
+        all.record(responseMicros, serviceMicros, status, expected);
+    }
+
+    /**
+     * Records a call that failed without a response, e.g. a timeout.
+     */
+    public void failed() {
+        errors.increment();
+    }
+
+    /**
+     * Records a call that was not sent because too many calls were in flight.
+     */
+    public void dropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Writes the histograms and the summary.
+     *
+     * @param directory the directory to write to, created if missing
+     * @param run       the parameters of the run, copied to the summary
+     * @param seconds   the measured duration of the run
+     * @return the summary
+     * @throws IOException if a file cannot be written
+     */
+    public Map<String, Object> write(Path directory, Map<String, Object> run, double seconds) throws IOException {
+        Files.createDirectories(directory);
+        writeHistogram(directory.resolve("response.hgrm"), all.response);
+        writeHistogram(directory.resolve("service.hgrm"), all.service);
+        Map<String, Object> byKind = new TreeMap<>();
+        kinds.forEach((name, kind) -> {
+            byKind.put(name, summary(kind, seconds));
+            try {
+                writeHistogram(directory.resolve("response-" + name + ".hgrm"), kind.response);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>(run);
+        summary.put("seconds", Math.round(seconds * 10) / 10.0);
+        summary.put("dropped", dropped.sum());
+        summary.put("errors", errors.sum());
+        summary.putAll(summary(all, seconds));
+        summary.put("kinds", byKind);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("summary.json").toFile(), summary);
+        return summary;
+    }
+
+    private static Map<String, Object> summary(Kind kind, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long completed = kind.response.getTotalCount();
+        summary.put("completed", completed);
+        summary.put("throughput", Math.round(completed / seconds * 10) / 10.0);
+        summary.put("unexpected", kind.unexpected.sum());
+        Map<String, Long> statuses = new TreeMap<>();
+        kind.statuses.forEach((status, count) -> statuses.put(status.toString(), count.sum()));
+        summary.put("statuses", statuses);
+        summary.put("responseMs", percentiles(kind.response));
+        summary.put("serviceMs", percentiles(kind.service));
+        return summary;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put("p" + (percentile % 1 == 0 ? Long.toString((long) percentile) : Double.toString(percentile)),
+                    millis(histogram.getValueAtPercentile(percentile)));
+        }
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            // Values are in microseconds, reported in milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.nisum.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@code POST /users/register} traffic with a mix of new, duplicate and
+ * invalid emails.
+ * <p>
+ * Of every request, a {@code duplicates} fraction registers an email that was
+ * already registered successfully (expecting 409), an {@code invalid}
+ * fraction uses a malformed email (expecting 400), and the rest registers a
+ * new user (expecting 200). Duplicates are drawn from the last
+ * {@value #REMEMBERED} registered emails, like a user retrying a sign-up
+ * shortly after it succeeded. Until one of them has completed, a duplicate
+ * is sent as a new registration instead, so which calls are duplicates, and
+ * how many, also depends on how fast the server answers. The mix is drawn
+ * from a seeded generator, which fixes its proportions but not the exact
+ * sequence of calls.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class RegistrationScenario implements Scenario {
+
+    private static final int REMEMBERED = 10_000;
+
+    /**
+     * Header repeating the email of a request, so a completed call can be
+     * remembered without parsing its body.
+     */
+    private static final String EMAIL_HEADER = "X-Load-Email";
+
+    private static final List<String> INVALID_EMAILS = List.of(
+            "plainaddress", "missing-domain@", "@missing-local.com", "double@@example.com",
+            "spaces in@example.com", "no-tld@example", "trailing-dot@example.com.", "comma,user@example.com");
+
+    private final URI registerUri;
+    private final String runId;
+    private final double duplicates;
+    private final double invalid;
+    private final SplittableRandom random;
+    private final AtomicLong newUsers = new AtomicLong();
+    private final AtomicReferenceArray<String> registered = new AtomicReferenceArray<>(REMEMBERED);
+    private final AtomicLong registeredCount = new AtomicLong();
+
+    /**
+     * Creates the scenario.
+     *
+     * @param baseUri    the address of the application
+     * @param duplicates the fraction of requests registering an already registered email
+     * @param invalid    the fraction of requests with a malformed email
+     * @param seed       the seed of the request mix
+     */
+    public RegistrationScenario(URI baseUri, double duplicates, double invalid, long seed) {
+        this.registerUri = baseUri.resolve("/users/register");
+        this.runId = Long.toString(System.currentTimeMillis(), 36);
+        this.duplicates = duplicates;
+        this.invalid = invalid;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public String name() {
+        return "register";
+    }
+
+    @Override
+    public Call next() {
+        double draw = random.nextDouble();
+        if (draw < invalid) {
+            String email = INVALID_EMAILS.get(random.nextInt(INVALID_EMAILS.size()));
+            return new Call("invalid", request(email), 400);
+        }
+        long known = registeredCount.get();
+        if (draw < invalid + duplicates && known > 0) {
+            String email = registered.get((int) random.nextLong(Math.min(known, REMEMBERED)));
+            if (email != null) {
+                return new Call("duplicate", request(email), 409);
+            }
+        }
+        return new Call("new", request("load-" + runId + "-" + newUsers.incrementAndGet() + "@example.com"), 200);
+    }
+
+    @Override
+    public void completed(Call call, int status) {
+        if (call.kind().equals("new") && status == 200) {
+            String email = call.request().headers().firstValue(EMAIL_HEADER).orElseThrow();
+            registered.set((int) (registeredCount.getAndIncrement() % REMEMBERED), email);
+        }
+    }
+
+    private HttpRequest request(String email) {
+        String body = "{\"name\":\"Load User\",\"email\":\"" + email + "\",\"password\":\"Password123\","
+                + "\"phones\":[{\"number\":\"5551234\",\"citycode\":\"1\",\"countrycode\":\"57\"}]}";
+        return HttpRequest.newBuilder(registerUri)
+                .header("Content-Type", "application/json")
+                .header(EMAIL_HEADER, email)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.nisum.load;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Source of the requests sent by the {@link ConstantArrivalRateGenerator}.
+ * <p>
+ * {@link #next()} is called from the single scheduling thread, one call per
+ * arrival; {@link #completed(Call, int)} from the thread that received the
+ * response, so implementations must make the state it updates thread-safe.
+ * </p>
+ *
+ * @author avasquez
+ */
+public interface Scenario {
+
+    /**
+     * One request and the outcome expected from it.
+     *
+     * @param kind           the kind of request, reported separately
+     * @param request        the request to send
+     * @param expectedStatus the status a correct server answers
+     */
+    record Call(String kind, HttpRequest request, int expectedStatus) {
+    }
+
+    /**
+     * @return the name of the scenario, used to name its reports
+     */
+    String name();
+
+    /**
+     * @return the next request to send
+     */
+    Call next();
+
+    /**
+     * Receives the status of a completed call.
+     *
+     * @param call   the call
+     * @param status the status received
+     */
+    default void completed(Call call, int status) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.nisum.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a new instance of the application serves its first
+ * registrations, in each way it can be deployed.
+ * <p>
+ * Each mode is started {@code runs} times in a new JVM, on a free port:
+ * </p>
+ * <ul>
+ *     <li>{@code jar}: the application jar with the default settings</li>
+ *     <li>{@code jar-prod}: the application jar with the {@code prod} profile
+ *     and its lazy initialization, but without AOT or CDS</li>
+ *     <li>{@code aot}: the startup image, with the AOT-generated code, lazy
+ *     initialization and the {@code prod} profile</li>
+ *     <li>{@code aot-cds}: the same, with the CDS archive of the image</li>
+ * </ul>
+ * <p>
+ * Each mode adds one thing to the previous one, so the difference between
+ * two consecutive modes is what that thing gains: the profile, the
+ * AOT-generated code, then the CDS archive.
+ * </p>
+ * <p>
+ * Three times are recorded per run: from the process start until the port
+ * accepts connections ({@code readyMs}), then the latency of the first
+ * registration ({@code firstRequestMs}), which pays for whatever was left
+ * to initialize, and of the second one ({@code secondRequestMs}). The
+ * medians and extremes are written to {@code summary.json}, meant to be
+ * diffed between builds, and the output of each process to {@code logs}.
+ * </p>
+ * <p>
+ * Arguments are {@code key=value} pairs, passed by {@code ./gradlew
+ * startupTest}: {@code java}, {@code jar} and {@code image} locate the JVM,
+ * the application jar and the startup image, {@code runs} (5) and
+ * {@code modes} (all, comma separated) select what is measured, and
+ * {@code output} and {@code version} are as in {@link LoadHarness}.
+ * </p>
+ *
+ * @author avasquez
+ */
+public final class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        String java = options.getOrDefault("java", "java");
+        Path image = Path.of(options.getOrDefault("image", "build/startup"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "jar,jar-prod,aot,aot-cds").split(","));
+        Path output = Path.of(options.getOrDefault("output", "build/reports/startup"));
+        Files.createDirectories(output.resolve("logs"));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("version", options.getOrDefault("version", "unknown"));
+        summary.put("runs", runs);
+        for (String mode : modes) {
+            List<String> command = new ArrayList<>(List.of(java));
+            Path workingDir = image;
+            switch (mode) {
+                case "jar" -> {
+                    command.addAll(List.of("-jar", Path.of(options.get("jar")).toAbsolutePath().toString()));
+                    workingDir = output;
+                }
+                case "jar-prod" -> {
+                    command.addAll(List.of("-jar", Path.of(options.get("jar")).toAbsolutePath().toString(),
+                            "--spring.profiles.active=prod"));
+                    workingDir = output;
+                }
+                case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", "app.jar",
+                        "--spring.profiles.active=prod"));
+                case "aot-cds" -> command.addAll(List.of("-XX:SharedArchiveFile=app.jsa", "-Xlog:cds=off",
+                        "-Dspring.aot.enabled=true", "-jar", "app.jar", "--spring.profiles.active=prod"));
+                default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+            List<long[]> samples = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                long[] sample = run(command, workingDir, output.resolve("logs").resolve(mode + "-" + run + ".log"));
+                System.out.printf("%-8s run %d: ready %d ms, first request %d ms, second request %d ms%n",
+                        mode, run, sample[0], sample[1], sample[2]);
+                samples.add(sample);
+            }
+            Map<String, Object> times = new LinkedHashMap<>();
+            times.put("readyMs", stats(samples, 0));
+            times.put("firstRequestMs", stats(samples, 1));
+            times.put("secondRequestMs", stats(samples, 2));
+            summary.put(mode, times);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.resolve("summary.json").toFile(), summary);
+        System.out.println("Summary written to " + output.resolve("summary.json").toAbsolutePath());
+    }
+
+    /**
+     * Starts the application, waits for its port, sends two registrations
+     * and stops it.
+     *
+     * @return the ready time and the latencies of both requests, in milliseconds
+     */
+    private static long[] run(List<String> command, Path workingDir, Path log) throws Exception {
+        long start = System.nanoTime();
+        try (ApplicationProcess application = ApplicationProcess.start(command, workingDir, log);
+             HttpClient httpClient = HttpClient.newHttpClient()) {
+            application.awaitPort(STARTUP_TIMEOUT);
+            long ready = System.nanoTime();
+            Scenario scenario = new RegistrationScenario(application.baseUri(), 0, 0, 42);
+            long first = register(httpClient, scenario);
+            long second = register(httpClient, scenario);
+            return new long[]{TimeUnit.NANOSECONDS.toMillis(ready - start), first, second};
+        }
+    }
+
+    private static long register(HttpClient httpClient, Scenario scenario) throws Exception {
+        Scenario.Call call = scenario.next();
+        long start = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(call.request(), HttpResponse.BodyHandlers.ofString());
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (response.statusCode() != call.expectedStatus()) {
+            throw new IllegalStateException("Registration answered " + response.statusCode() + ": " + response.body());
+        }
+        return latency;
+    }
+
+    private static Map<String, Long> stats(List<long[]> samples, int index) {
+        long[] values = samples.stream().mapToLong(sample -> sample[index]).sorted().toArray();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("median", values[values.length / 2]);
+        stats.put("min", values[0]);
+        stats.put("max", values[values.length - 1]);
+        return stats;
+    }
+}
@@ -0,0 +1,139 @@
+package com.nisum.config;
+
+import com.nisum.utils.Bulkhead;
+import com.nisum.utils.BulkheadDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration class for the threading mode and the bulkheads guarding
+ * fixed-capacity stages.
+ * <p>
+ * With {@code spring.threads.virtual.enabled}, Tomcat request handling and
+ * the {@code applicationTaskExecutor} (async MVC responses and the persistence
+ * step of registrations) run on virtual threads. Nothing then bounds how many
+ * requests reach a stage at once, so two bulkheads restore the bounds the
+ * platform thread pools used to provide:
+ * </p>
+ * <ul>
+ *     <li>{@code cpuBulkhead}: CPU-bound work on request threads (BCrypt verification, JWT signing),
+ *     one permit per processor by default; hashes computed on the password hashing pool are bounded
+ *     by its size instead</li>
+ *     <li>{@code dbBulkhead}: checked-out JDBC connections, as many permits as pooled connections by default</li>
+ * </ul>
+ * <p>
+ * The {@code dbBulkhead} guards Spring Boot's single pool. The routing data
+ * sources of the replica and sharding modes spread connections over several
+ * pools, so they guard each pool with a bulkhead of its own instead.
+ * </p>
+ * <p>
+ * It also enables {@code @Scheduled} methods, such as the periodic flush of
+ * the {@code LastLoginRecorder}.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+@EnableScheduling
+public class ConcurrencyConfig {
+
+    /**
+     * Creates the executor for blocking asynchronous work: completing async
+     * MVC responses and saving registered users once their password is hashed.
+     * <p>
+     * It replaces the executor Spring Boot would create, which is skipped
+     * because the password hashing pool is itself an {@code Executor} bean.
+     * </p>
+     *
+     * @param virtualThreads whether virtual threads are enabled
+     * @param poolSize       number of platform threads when virtual threads are disabled
+     * @return a virtual-thread-per-task executor, or a fixed platform thread pool
+     */
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${spring.task.execution.pool.core-size:8}") int poolSize) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("task-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates the bulkhead for CPU-bound stages.
+     * <p>
+     * A permit count of 0 (the default) means one permit per available processor.
+     * </p>
+     *
+     * @param permits   the configured permit count
+     * @param maxWaitMs how long to wait for a permit, in milliseconds
+     * @return the CPU bulkhead
+     */
+    @Bean
+    public Bulkhead cpuBulkhead(@Value("${bulkhead.cpu.permits:0}") int permits,
+                                @Value("${bulkhead.cpu.max-wait-ms:5000}") long maxWaitMs) {
+        int effectivePermits = permits > 0 ? permits : Runtime.getRuntime().availableProcessors();
+        return new Bulkhead("cpu", effectivePermits, Duration.ofMillis(maxWaitMs));
+    }
+
+    /**
+     * Creates the bulkhead for database connections. It is declared static
+     * because the data source post-processor depends on it.
+     *
+     * @param permits   the permit count, by default the Hikari maximum pool size
+     * @param maxWaitMs how long to wait for a permit, in milliseconds
+     * @return the database bulkhead
+     */
+    @Bean
+    public static Bulkhead dbBulkhead(
+            @Value("${bulkhead.db.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${bulkhead.db.max-wait-ms:30000}") long maxWaitMs) {
+        return new Bulkhead("db", permits, Duration.ofMillis(maxWaitMs));
+    }
+
+    /**
+     * Wraps the application data source in a {@link BulkheadDataSource}, so
+     * every connection checkout (JPA, JDBC templates, Flyway) holds a permit.
+     * <p>
+     * Data sources that route or delegate to other data sources are left as
+     * they are: the pools behind them are guarded one by one.
+     * </p>
+     *
+     * @param dbBulkhead the database bulkhead
+     * @return the post-processor wrapping the data source
+     */
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor(
+            @Qualifier("dbBulkhead") ObjectProvider<Bulkhead> dbBulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                        && !(bean instanceof AbstractRoutingDataSource)) {
+                    return new BulkheadDataSource(dataSource, dbBulkhead.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.nisum.config;
+
+import com.nisum.utils.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration of read/write splitting between a primary database and a
+ * read replica, enabled by {@code datasource.replica.enabled}.
+ * <p>
+ * It replaces Spring Boot's data source with a {@link ReadWriteRoutingDataSource}
+ * over two Hikari pools: {@code primary}, configured by {@code spring.datasource.*},
+ * and {@code replica}, whose URL and credentials come from
+ * {@code datasource.replica.*}. Both pools are configured by
+ * {@code spring.datasource.hikari.*}, publish the {@code hikari.*} metrics
+ * tagged with their pool name and sit behind their own bulkhead (see
+ * {@link HikariPools}). The pools are closed on shutdown.
+ * </p>
+ * <p>
+ * The {@code replica} profile enables it on a single machine.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Value("${datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.replica.retry-after-ms:5000}")
+    private long replicaRetryAfterMs;
+
+    @Autowired
+    private Environment environment;
+
+    private HikariPools pools;
+
+    /**
+     * Creates the data source routing read-only transactions to the replica.
+     *
+     * @param properties    the {@code spring.datasource.*} properties of the primary
+     * @param meterRegistry the registry where the pool and routing metrics are published
+     * @return the routing data source, behind a lazy connection proxy
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        pools = new HikariPools(environment, meterRegistry);
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        DataSource guardedPrimary = pools.add(primary, "primary");
+        DataSource guardedReplica = pools.add(replica, "replica");
+        replica.setReadOnly(true);
+
+        // Routing needs to know whether the transaction is read-only, which is only
+        // set after the transaction manager asked for a connection
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                guardedPrimary, guardedReplica, Duration.ofMillis(replicaRetryAfterMs), meterRegistry));
+    }
+
+    /**
+     * Closes the primary and replica pools, once everything using the data source is gone.
+     */
+    @PreDestroy
+    public void closePools() {
+        if (pools != null) {
+            pools.close();
+        }
+    }
+}
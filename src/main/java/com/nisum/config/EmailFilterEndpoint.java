@@ -0,0 +1,63 @@
+package com.nisum.config;
+
+import com.nisum.utils.EmailExistenceFilter;
+import com.nisum.utils.ScalableBloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for inspecting and rebuilding the email existence filter.
+ * <p>
+ * {@code filter} returns the filter size and memory use; {@code rebuild}
+ * rebuilds it from the {@code users} table.
+ * </p>
+ * <p>
+ * A rebuild reads the whole {@code users} table, so the endpoint is exposed
+ * over JMX only, as the {@code Emailfilter} endpoint MBean, and requires
+ * {@code ROLE_ADMIN} if exposed over HTTP anyway, see {@code SecurityConfig}.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+@Endpoint(id = "emailfilter")
+public class EmailFilterEndpoint {
+
+    @Autowired
+    private EmailExistenceFilter emailExistenceFilter;
+
+    /**
+     * Describes the current state of the filter.
+     *
+     * @return the filter size, slice count and memory use
+     */
+    @ReadOperation
+    public Map<String, Object> filter() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        ScalableBloomFilter filter = emailExistenceFilter.getFilter();
+        details.put("ready", filter != null);
+        if (filter != null) {
+            details.put("emails", filter.size());
+            details.put("slices", filter.sliceCount());
+            details.put("bytes", filter.bitSizeInBytes());
+        }
+        return details;
+    }
+
+    /**
+     * Rebuilds the filter, resizing it for the current number of users.
+     *
+     * @return the state of the rebuilt filter
+     */
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        emailExistenceFilter.rebuild();
+        return filter();
+    }
+}
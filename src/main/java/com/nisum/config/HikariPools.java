@@ -0,0 +1,80 @@
+package com.nisum.config;
+
+import com.nisum.utils.Bulkhead;
+import com.nisum.utils.BulkheadDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Hikari pools behind a routing data source, set up the way Spring Boot
+ * sets up its own pool.
+ * <p>
+ * Each pool gets every {@code spring.datasource.hikari.*} property, its own
+ * name, the {@code hikari.*} metrics tagged with that name, and its own
+ * {@link Bulkhead}, published as {@code db-<name>}. The bulkhead has
+ * {@code bulkhead.db.permits} permits, by default as many as the pool has
+ * connections, so a permit always stands for a connection of that pool: a
+ * busy pool does not use up the permits of the others, and a query holding
+ * one connection per pool holds one permit of each.
+ * </p>
+ * <p>
+ * The pools are not beans: the configuration creating them closes them on
+ * shutdown through {@link #close()}.
+ * </p>
+ *
+ * @author avasquez
+ */
+final class HikariPools implements AutoCloseable {
+
+    private final Binder binder;
+    private final MeterRegistry meterRegistry;
+    private final int permits;
+    private final Duration maxWait;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    /**
+     * @param environment   the environment holding the pool and bulkhead properties
+     * @param meterRegistry the registry where the pool and bulkhead metrics are published
+     */
+    HikariPools(Environment environment, MeterRegistry meterRegistry) {
+        this.binder = Binder.get(environment);
+        this.meterRegistry = meterRegistry;
+        this.permits = binder.bind("bulkhead.db.permits", Integer.class).orElse(0);
+        this.maxWait = Duration.ofMillis(binder.bind("bulkhead.db.max-wait-ms", Long.class).orElse(30000L));
+    }
+
+    /**
+     * Configures a pool and guards it with its own bulkhead.
+     *
+     * @param pool the pool, with its URL and credentials set
+     * @param name the name of the pool
+     * @return the pool behind its bulkhead
+     */
+    DataSource add(HikariDataSource pool, String name) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(pool);
+
+        Bulkhead bulkhead = new Bulkhead("db-" + name, permits > 0 ? permits : pool.getMaximumPoolSize(), maxWait);
+        bulkhead.bindTo(meterRegistry);
+        return new BulkheadDataSource(pool, bulkhead);
+    }
+
+    /**
+     * Closes every pool, in the order they were added.
+     */
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
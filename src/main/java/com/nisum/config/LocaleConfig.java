@@ -0,0 +1,35 @@
+package com.nisum.config;
+
+import com.nisum.utils.MessagesHelper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
+
+/**
+ * Configuration of the language of the messages returned to clients.
+ * <p>
+ * The language is taken from the {@code Accept-Language} header and narrowed
+ * to one of the {@link MessagesHelper#SUPPORTED_LOCALES}. Requests without
+ * the header, or asking only for other languages, get the default one
+ * (Spanish) rather than the server's locale.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+public class LocaleConfig {
+
+    /**
+     * Resolves the language of each request from its {@code Accept-Language} header.
+     *
+     * @return the {@code LocaleResolver} bean, replacing Spring Boot's default one
+     */
+    @Bean
+    public LocaleResolver localeResolver() {
+        AcceptHeaderLocaleResolver localeResolver = new AcceptHeaderLocaleResolver();
+        localeResolver.setSupportedLocales(MessagesHelper.SUPPORTED_LOCALES);
+        localeResolver.setDefaultLocale(MessagesHelper.DEFAULT_LOCALE);
+        return localeResolver;
+    }
+}
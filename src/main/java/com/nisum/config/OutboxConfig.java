@@ -0,0 +1,49 @@
+package com.nisum.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.outbox.FileOutboxSink;
+import com.nisum.outbox.LoggingOutboxSink;
+import com.nisum.outbox.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the destination of the transactional outbox events.
+ * <p>
+ * {@code outbox.sink} selects one of the built-in sinks: {@code log} only
+ * logs the events, and {@code file} appends them as JSON lines to
+ * {@code outbox.file.path}. A sink for a real downstream system (a message
+ * broker, an HTTP endpoint) implements {@link OutboxSink} and replaces the
+ * bean declared here.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Value("${outbox.sink:log}")
+    private String sink;
+
+    @Value("${outbox.file.path:/tmp/outbox/events.jsonl}")
+    private String filePath;
+
+    /**
+     * Creates the sink the {@code OutboxRelay} delivers the events to.
+     *
+     * @param objectMapper the mapper used by the file sink
+     * @return the {@code OutboxSink} bean
+     * @throws IllegalArgumentException if {@code outbox.sink} names no known sink
+     */
+    @Bean
+    public OutboxSink outboxSink(ObjectMapper objectMapper) {
+        return switch (sink) {
+            case "log" -> new LoggingOutboxSink();
+            case "file" -> new FileOutboxSink(Path.of(filePath), objectMapper);
+            default -> throw new IllegalArgumentException("Unknown outbox.sink: " + sink);
+        };
+    }
+}
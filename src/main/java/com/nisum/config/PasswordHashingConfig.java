@@ -0,0 +1,75 @@
+package com.nisum.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration class for the password hashing thread pool.
+ * <p>
+ * BCrypt is deliberately CPU-expensive, so hashing runs on a dedicated,
+ * fixed-size executor with a bounded queue instead of the servlet request
+ * threads. When the queue is full new tasks are rejected immediately, which
+ * lets the API answer with 503 instead of starving unrelated endpoints.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    @Value("${hashing.pool.size:0}")
+    private int poolSize;
+
+    @Value("${hashing.pool.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Creates the executor used exclusively for password hashing.
+     * <p>
+     * A pool size of 0 (the default) means one thread per available processor.
+     * </p>
+     *
+     * @return a bounded {@code ThreadPoolExecutor} that aborts on saturation
+     */
+    @Bean(name = "passwordHashingExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Exposes the hashing pool queue depth and activity as gauges.
+     *
+     * @param executor the password hashing executor
+     * @return a {@code MeterBinder} registering the pool gauges
+     */
+    @Bean
+    public MeterBinder passwordHashingExecutorMetrics(
+            @Qualifier("passwordHashingExecutor") ThreadPoolExecutor executor) {
+        return registry -> {
+            Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                    .description("Password hashing tasks waiting for a thread")
+                    .register(registry);
+            Gauge.builder("password.hashing.queue.remaining", executor, e -> e.getQueue().remainingCapacity())
+                    .description("Free slots in the password hashing queue")
+                    .register(registry);
+            Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Password hashing threads currently busy")
+                    .register(registry);
+        };
+    }
+}
@@ -1,10 +1,27 @@
 package com.nisum.config;
 
+import com.nisum.security.AdmissionControl;
+import com.nisum.security.AdmissionControlFilter;
+import com.nisum.security.JwtAuthenticationFilter;
+import com.nisum.security.VerifiedTokenCache;
+import com.nisum.utils.ErrorResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.servlet.LocaleResolver;
+
+import java.util.List;
+import java.util.Set;
 
 /**
  * Security configuration class for managing API security settings.
@@ -13,6 +30,18 @@ import org.springframework.security.web.SecurityFilterChain;
  * specifies public and protected API endpoints. It uses Spring Security's
  * {@code SecurityFilterChain} to define authentication and authorization rules.
  * </p>
+ * <p>
+ * Protected endpoints are authenticated with the bearer tokens issued at
+ * registration, verified by a {@link JwtAuthenticationFilter}. Sessions are
+ * never created, so every request carries its own token. The user export
+ * also requires {@code ROLE_ADMIN}, granted to the {@code jwt.admin-emails},
+ * and so do the operations endpoints, which have their own filter chain.
+ * </p>
+ * <p>
+ * Unless {@code admission.enabled} is false, the endpoints that hash a
+ * password ({@code admission.paths}) are guarded by an
+ * {@link AdmissionControlFilter}, ahead of bearer token authentication.
+ * </p>
  *
  * @author avasquez
  */
@@ -20,12 +49,34 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private ErrorResponses errorResponses;
+
+    @Autowired
+    private LocaleResolver localeResolver;
+
+    @Value("${admission.enabled:true}")
+    private boolean admissionEnabled;
+
+    @Value("${admission.paths:/users/register,/users/login}")
+    private String[] admissionPaths;
+
+    @Value("${jwt.admin-emails:}")
+    private String[] adminEmails;
+
     /**
      * Configures security filter chain for HTTP requests.
      * <p>
      * It disables CSRF protection (since JWT will be used) and allows specific
      * public endpoints (such as registration and Swagger docs) while requiring
-     * authentication for other endpoints.
+     * authentication for other endpoints. Unauthenticated requests to
+     * protected endpoints get a bare 401 response.
      * </p>
      *
      * @param http the {@code HttpSecurity} object to configure security.
@@ -34,20 +85,70 @@ public class SecurityConfig {
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http
-                .csrf().disable()
+        if (admissionEnabled) {
+            http.addFilterBefore(new AdmissionControlFilter(admissionControl, Set.of(admissionPaths),
+                            errorResponses, localeResolver),
+                    UsernamePasswordAuthenticationFilter.class);
+        }
+        withBearerTokens(http)
                 .headers(headers -> headers.frameOptions().sameOrigin()) // H2 console
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
                                 "/users/register",
+                                "/users/register/batch",
+                                "/users/login",
                                 "/v3/api-docs/**", // Swagger API docs
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
-                                "/h2-console/**")
+                                "/h2-console/**",
+                                "/actuator/prometheus") // metrics scraping
                         .permitAll()
+                        .requestMatchers("/users/export").hasRole("ADMIN") // every user at once
                         .anyRequest().authenticated()  // All other requests must be authenticated
                 );
 
         return http.build();
     }
+
+    /**
+     * Configures the security filter chain of the operations endpoints.
+     * <p>
+     * These endpoints act on every user at once, such as the email filter
+     * rebuild and the shard rebalancing, and are exposed over JMX only. Should one be exposed over
+     * HTTP anyway, this chain, checked before the one of the API, lets only
+     * tokens with {@code ROLE_ADMIN} through.
+     * </p>
+     *
+     * @param http the {@code HttpSecurity} object to configure security.
+     * @return a {@code SecurityFilterChain} bean for the operations endpoints.
+     * @throws Exception if there is an error during security configuration.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain operationsSecurityFilterChain(HttpSecurity http) throws Exception {
+        withBearerTokens(http)
+                .securityMatcher(EndpointRequest.to(EmailFilterEndpoint.class, ShardingEndpoint.class))
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("ADMIN"));
+
+        return http.build();
+    }
+
+    /**
+     * Authenticates the requests of a chain with bearer tokens only: CSRF
+     * protection and sessions are disabled, and unauthenticated requests get
+     * a bare 401 response.
+     *
+     * @param http the {@code HttpSecurity} object to configure security.
+     * @return the same {@code HttpSecurity}, for further configuration.
+     * @throws Exception if there is an error during security configuration.
+     */
+    private HttpSecurity withBearerTokens(HttpSecurity http) throws Exception {
+        return http
+                .csrf().disable()
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthenticationFilter(verifiedTokenCache, List.of(adminEmails)),
+                        UsernamePasswordAuthenticationFilter.class);
+    }
 }
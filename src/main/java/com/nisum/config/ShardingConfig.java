@@ -0,0 +1,125 @@
+package com.nisum.config;
+
+import com.nisum.utils.ShardRoutingDataSource;
+import com.nisum.utils.UserShards;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the sharded user store, enabled by {@code sharding.enabled}.
+ * <p>
+ * It replaces Spring Boot's data source with a {@link ShardRoutingDataSource}
+ * over one Hikari pool per entry of {@code sharding.urls}, named
+ * {@code shard-<n>}, each configured by {@code spring.datasource.hikari.*}
+ * with the credentials of {@code spring.datasource.*}, and each behind its
+ * own bulkhead (see {@link HikariPools}). The pools are closed on shutdown.
+ * Sharding replaces the read replica routing of {@link DataSourceRoutingConfig};
+ * the two cannot be enabled together.
+ * </p>
+ * <p>
+ * Flyway migrates every shard in turn. The phone and outbox identifiers come
+ * from sequences whose blocks the application shares across shards, so each
+ * shard's sequences are then moved to their own range of
+ * 2<sup>{@value #SEQUENCE_RANGE_BITS}</sup> values, which keeps identifiers
+ * unique when a block fetched from one shard is used on another.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final int SEQUENCE_RANGE_BITS = 52;
+
+    private static final List<String> SEQUENCES = List.of("phones_seq", "outbox_seq");
+
+    @Value("${sharding.urls}")
+    private List<String> shardUrls;
+
+    @Autowired
+    private Environment environment;
+
+    private HikariPools pools;
+
+    /**
+     * Creates the data source routing each connection to the shard bound to
+     * the calling thread.
+     *
+     * @param properties    the {@code spring.datasource.*} properties, for the driver and credentials
+     * @param meterRegistry the registry where the pool metrics are published
+     * @return the routing data source
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        pools = new HikariPools(environment, meterRegistry);
+        List<DataSource> shards = new ArrayList<>(shardUrls.size());
+        for (String url : shardUrls) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            shards.add(pools.add(shard, "shard-" + shards.size()));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Closes the shard pools, once everything using the data source is gone.
+     */
+    @PreDestroy
+    public void closePools() {
+        if (pools != null) {
+            pools.close();
+        }
+    }
+
+    /**
+     * Migrates every shard, then gives each shard its own sequence range.
+     *
+     * @param userShards the shard placement
+     * @return the migration strategy run by Spring Boot's Flyway initializer
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(UserShards userShards) {
+        return flyway -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+            for (int shard = 0; shard < userShards.count(); shard++) {
+                int target = shard;
+                userShards.on(shard, () -> {
+                    flyway.migrate();
+                    separateSequences(jdbcTemplate, target);
+                    return null;
+                });
+            }
+        };
+    }
+
+    private static void separateSequences(JdbcTemplate jdbcTemplate, int shard) {
+        long rangeStart = (long) shard << SEQUENCE_RANGE_BITS;
+        for (String sequence : SEQUENCES) {
+            Long next = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+            if (next != null && next < rangeStart) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with " + rangeStart);
+            }
+        }
+    }
+}
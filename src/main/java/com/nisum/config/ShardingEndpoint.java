@@ -0,0 +1,74 @@
+package com.nisum.config;
+
+import com.nisum.utils.ShardRebalancer;
+import com.nisum.utils.UserShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for inspecting and rebalancing the user shards.
+ * <p>
+ * {@code shards} returns the number of users on each shard, counted on all
+ * shards in parallel; {@code rebalance} moves the users misplaced since
+ * shards were added, see {@link ShardRebalancer}.
+ * </p>
+ * <p>
+ * Rebalancing locks and moves user rows, so the endpoint is exposed over JMX
+ * only, as the {@code Shards} endpoint MBean, and requires {@code ROLE_ADMIN}
+ * if exposed over HTTP anyway, see {@code SecurityConfig}.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+@Endpoint(id = "shards")
+public class ShardingEndpoint {
+
+    @Autowired
+    private UserShards userShards;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Describes the shards.
+     *
+     * @return the shard count, the previous shard count and the users per shard
+     */
+    @ReadOperation
+    public Map<String, Object> shards() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Long> users = userShards.fanOut(
+                shard -> jdbcTemplate.queryForObject("select count(*) from users", Long.class));
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("shards", userShards.count());
+        details.put("previousShards", userShards.previousCount());
+        details.put("users", users);
+        return details;
+    }
+
+    /**
+     * Moves every misplaced user to its shard.
+     *
+     * @return the number of users moved and the resulting users per shard
+     */
+    @WriteOperation
+    public Map<String, Object> rebalance() {
+        long moved = shardRebalancer.rebalance();
+        Map<String, Object> details = shards();
+        details.put("moved", moved);
+        return details;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nisum.config;
+
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Configuration of which beans are created at startup when
+ * {@code spring.main.lazy-initialization} is on, as in the {@code prod}
+ * profile.
+ * <p>
+ * Lazy initialization defers every bean until it is first used, which
+ * shortens the startup but moves the cost to the first requests. The
+ * controllers are kept eager, and with them everything they use (the
+ * services, repositories, the JPA persistence unit and the password
+ * encoder), as are the servlet filters, including the security filter
+ * chain, so a new instance answers its first registration at full speed.
+ * Scheduled tasks are kept eager by Spring Boot. What is left lazy is what
+ * no request path needs right away: actuator endpoints, maintenance
+ * components such as the shard rebalancer, and unused auto-configured
+ * infrastructure.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Keeps the controllers and servlet filters eager under lazy
+     * initialization. Static, as it is used while the bean definitions are
+     * post-processed.
+     *
+     * @return the {@code LazyInitializationExcludeFilter} bean
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathLazyInitializationExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || Filter.class.isAssignableFrom(beanType)
+                || SecurityFilterChain.class.isAssignableFrom(beanType);
+    }
+}
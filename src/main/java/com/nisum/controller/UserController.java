@@ -1,17 +1,55 @@
 package com.nisum.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.nisum.dto.login.LoginRequestDTO;
+import com.nisum.dto.login.LoginResponseDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO.Status;
 import com.nisum.dto.registration.UserRequestDTO;
 import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.dto.user.UserDetailsDTO;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.exception.admission.RateLimitedException;
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.security.AdmissionControl;
 import com.nisum.service.impl.UserServiceImpl;
+import com.nisum.utils.IdempotencyStore;
+import com.nisum.utils.MessagesHelper;
+import com.nisum.utils.UserCsvWriter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * REST controller for handling user-related requests.
  * <p>
- * This controller manages user registration operations and is mapped to the
- * "/users" URL. It interacts with the {@code UserServiceImpl} to process requests.
+ * This controller manages user registration, login and lookup operations and is
+ * mapped to the "/users" URL. It interacts with the {@code UserServiceImpl} to process requests.
  * </p>
  *
  * @author avasquez
@@ -20,23 +58,273 @@ import com.nisum.service.impl.UserServiceImpl;
 @RequestMapping("/users")
 public class UserController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String INVALID_REQUEST_KEY = "request.invalid";
+
+    /**
+     * Output formats of the user export.
+     */
+    public enum ExportFormat {
+        NDJSON,
+        CSV
+    }
+
     @Autowired
     private UserServiceImpl userServiceImpl;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private MessagesHelper messagesHelper;
+
+    @Autowired
+    private LocaleResolver localeResolver;
+
+    @Value("${admission.enabled:true}")
+    private boolean admissionEnabled;
+
+    @Value("${registration.batch.chunk-size:500}")
+    private int batchChunkSize;
+
     /**
      * Handles user registration requests.
      * <p>
      * This method accepts a {@code UserRequestDTO} and returns a
      * {@code UserResponseDTO} after processing the registration logic
-     * in the {@code UserServiceImpl}.
+     * in the {@code UserServiceImpl}. The response is produced asynchronously,
+     * so the servlet thread is released while the password is being hashed.
+     * </p>
+     * <p>
+     * With an {@code Idempotency-Key} header, a retry of the same request gets
+     * the outcome of the first one from the {@code IdempotencyStore}, be it
+     * the registered user or a client error, without registering again.
+     * Transient failures (such as a busy hashing pool) are not kept, so
+     * retrying them registers the user.
      * </p>
      *
      * @param userRequestDTO the request payload containing user registration details
-     * @return a {@code ResponseEntity} containing the registered user's response data
+     * @param idempotencyKey optional key identifying retries of the same request
+     * @return a future {@code ResponseEntity} containing the registered user's response data
+     * @throws JsonProcessingException if the request cannot be fingerprinted
      */
     @PostMapping("/register")
-    public ResponseEntity<UserResponseDTO> registerUser(@RequestBody UserRequestDTO userRequestDTO) {
-        UserResponseDTO userResponseDTO = userServiceImpl.registerUser(userRequestDTO);
-        return ResponseEntity.ok(userResponseDTO);
+    public CompletableFuture<ResponseEntity<UserResponseDTO>> registerUser(
+            @RequestBody UserRequestDTO userRequestDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey)
+            throws JsonProcessingException {
+        if (idempotencyKey == null) {
+            return userServiceImpl.registerUserAsync(userRequestDTO)
+                    .thenApply(ResponseEntity::ok);
+        }
+        byte[] fingerprint = IdempotencyStore.fingerprint(objectMapper.writeValueAsBytes(userRequestDTO));
+        return idempotencyStore.execute(idempotencyKey, fingerprint,
+                () -> userServiceImpl.registerUserAsync(userRequestDTO).thenApply(ResponseEntity::ok),
+                ex -> !(ex instanceof InvalidEmailException || ex instanceof EmailAlreadyExistsException));
+    }
+
+    /**
+     * Handles batch user registration requests.
+     * <p>
+     * The body may be a JSON array of {@code UserRequestDTO} objects or
+     * newline-delimited JSON (one object per line). Items are parsed lazily
+     * and the response streams back one {@code BatchRegistrationResultDTO}
+     * per line as chunks are persisted, so memory use stays constant
+     * regardless of the number of users submitted.
+     * </p>
+     * <p>
+     * Unless {@code admission.enabled} is false, each user costs its client
+     * one admission token, as a single registration does. The first chunk is
+     * read and charged before answering, so a batch beyond the client's
+     * burst is rejected with 429 as a whole. A client running out of tokens
+     * later in the batch gets the results of the users read so far, then a
+     * {@code RATE_LIMITED} line at the position of the first user left out.
+     * </p>
+     * <p>
+     * The response is flushed after the results of each chunk, so a client
+     * sees them while the next chunk is saved. A body that stops being valid
+     * JSON after the first chunk ends the response with the results of the
+     * users read so far, then an {@code INVALID_REQUEST} line at the
+     * position of the malformed user.
+     * </p>
+     * <p>
+     * Error messages are in the language of the request, resolved before the
+     * response starts streaming.
+     * </p>
+     *
+     * @param request the servlet request whose body holds the users to register
+     * @return a {@code ResponseEntity} streaming newline-delimited results
+     * @throws IOException if the request body cannot be read
+     * @throws RateLimitedException if the first chunk exceeds the client's rate
+     */
+    @PostMapping(value = "/register/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE},
+            produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> registerUsersBatch(HttpServletRequest request) throws IOException {
+        Locale locale = localeResolver.resolveLocale(request);
+        ObjectWriter resultWriter = objectMapper.writerFor(BatchRegistrationResultDTO.class);
+        MappingIterator<UserRequestDTO> parsed = objectMapper.readerFor(UserRequestDTO.class)
+                .readValues(request.getInputStream());
+        Iterator<UserRequestDTO> requests = admissionEnabled
+                ? admissionControl.admitEach(request.getRemoteAddr(), parsed)
+                : parsed;
+        List<UserRequestDTO> firstChunk = new ArrayList<>();
+        try {
+            while (firstChunk.size() < batchChunkSize && requests.hasNext()) {
+                firstChunk.add(requests.next());
+            }
+        } catch (RuntimeException ex) {
+            parsed.close();
+            throw ex;
+        }
+        Iterator<UserRequestDTO> allRequests = Stream.concat(firstChunk.stream(), StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(requests, Spliterator.ORDERED), false)).iterator();
+
+        StreamingResponseBody body = out -> {
+            int[] written = {0};
+            try (parsed) {
+                userServiceImpl.registerUsersBatch(allRequests, locale, result -> {
+                    try {
+                        out.write(resultWriter.writeValueAsBytes(result));
+                        out.write('\n');
+                        // The results of a chunk come together, once it is saved
+                        if (++written[0] % batchChunkSize == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (RateLimitedException ex) {
+                out.write(resultWriter.writeValueAsBytes(
+                        failure(written[0], Status.RATE_LIMITED, ex.getMessageKey(), locale)));
+                out.write('\n');
+            } catch (RuntimeException ex) {
+                if (ex instanceof UncheckedIOException || !(ex.getCause() instanceof JsonProcessingException)) {
+                    throw ex;
+                }
+                out.write(resultWriter.writeValueAsBytes(
+                        failure(written[0], Status.INVALID_REQUEST, INVALID_REQUEST_KEY, locale)));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Builds the line ending a batch early, at the position of the first
+     * user left out.
+     *
+     * @param index      the zero-based position of the first user left out
+     * @param status     the reason the batch ended
+     * @param messageKey the key of the error message
+     * @param locale     the language of the request
+     * @return the result describing why the rest of the batch was not registered
+     */
+    private BatchRegistrationResultDTO failure(int index, Status status, String messageKey, Locale locale) {
+        BatchRegistrationResultDTO result = new BatchRegistrationResultDTO(index, null, status);
+        result.setError(messagesHelper.getMessage(messageKey, locale));
+        return result;
+    }
+
+    /**
+     * Handles login requests.
+     * <p>
+     * This method verifies the credentials in the {@code LoginRequestDTO} and
+     * returns a {@code LoginResponseDTO} carrying a new token. A request
+     * without email or password is rejected with 400 before any lookup.
+     * </p>
+     *
+     * @param loginRequestDTO the request payload containing the credentials
+     * @return a {@code ResponseEntity} containing the user's identity and token
+     */
+    @PostMapping("/login")
+    public ResponseEntity<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequestDTO) {
+        return ResponseEntity.ok(userServiceImpl.login(loginRequestDTO));
+    }
+
+    /**
+     * Retrieves a registered user by identifier.
+     *
+     * @param id the user identifier
+     * @return a {@code ResponseEntity} containing the user's details
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<UserDetailsDTO> getUser(@PathVariable UUID id) {
+        return ResponseEntity.ok(userServiceImpl.getUser(id));
+    }
+
+    /**
+     * Retrieves a registered user by email address.
+     *
+     * @param email the email address of the user
+     * @return a {@code ResponseEntity} containing the user's details
+     */
+    @GetMapping(params = "email")
+    public ResponseEntity<UserDetailsDTO> getUserByEmail(@RequestParam String email) {
+        return ResponseEntity.ok(userServiceImpl.getUserByEmail(email));
+    }
+
+    /**
+     * Exports every registered user with its phones.
+     * <p>
+     * Users are streamed in id order straight to the response as they are
+     * read, either as newline-delimited JSON or as CSV, so memory use stays
+     * constant regardless of the number of users. If an export is interrupted,
+     * it can be resumed by passing the last id received as {@code after}.
+     * </p>
+     * <p>
+     * Only administrators may export, see {@code SecurityConfig}.
+     * </p>
+     *
+     * @param format the output format, {@code NDJSON} (default) or {@code CSV}
+     * @param after  the last id already received, to resume an interrupted export
+     * @return a {@code ResponseEntity} streaming the users
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) UUID after) {
+        StreamingResponseBody body;
+        String contentType;
+        if (format == ExportFormat.CSV) {
+            contentType = TEXT_CSV_VALUE + ";charset=UTF-8";
+            body = out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                UserCsvWriter csvWriter = new UserCsvWriter(writer);
+                userServiceImpl.exportUsers(after, user -> {
+                    try {
+                        csvWriter.write(user);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                writer.flush();
+            };
+        } else {
+            contentType = APPLICATION_NDJSON_VALUE;
+            ObjectWriter userWriter = objectMapper.writerFor(UserDetailsDTO.class);
+            body = out -> userServiceImpl.exportUsers(after, user -> {
+                try {
+                    out.write(userWriter.writeValueAsBytes(user));
+                    out.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(body);
     }
 }
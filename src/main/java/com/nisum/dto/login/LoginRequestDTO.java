@@ -0,0 +1,21 @@
+package com.nisum.dto.login;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * Data Transfer Object for login requests.
+ * <p>
+ * This class carries the credentials a registered user signs in with.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Data
+public class LoginRequestDTO {
+    @NotBlank
+    private String email;
+
+    @NotBlank
+    private String password;
+}
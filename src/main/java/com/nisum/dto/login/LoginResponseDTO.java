@@ -0,0 +1,23 @@
+package com.nisum.dto.login;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for login responses.
+ * <p>
+ * This class represents the information returned after a successful login:
+ * the user's identity, the time of this login and a freshly issued token.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Data
+public class LoginResponseDTO {
+    private UUID id;
+    private String email;
+    private LocalDateTime lastLogin;
+    private String token;
+}
@@ -0,0 +1,50 @@
+package com.nisum.dto.registration;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for the outcome of one item of a batch registration.
+ * <p>
+ * The batch endpoint streams one of these per submitted user, in input order,
+ * identified by its zero-based position in the request body.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Data
+@NoArgsConstructor
+public class BatchRegistrationResultDTO {
+
+    /**
+     * Possible outcomes of registering a single batch item.
+     */
+    public enum Status {
+        CREATED,
+        INVALID_EMAIL,
+        INVALID_REQUEST,
+        EMAIL_ALREADY_REGISTERED,
+        RATE_LIMITED
+    }
+
+    private int index;
+    private String email;
+    private Status status;
+    private UUID id;
+    private String error;
+
+    /**
+     * Creates a result for the item at the given position.
+     *
+     * @param index  the zero-based position of the item in the batch
+     * @param email  the email submitted for the item
+     * @param status the outcome of the item
+     */
+    public BatchRegistrationResultDTO(int index, String email, Status status) {
+        this.index = index;
+        this.email = email;
+        this.status = status;
+    }
+}
@@ -0,0 +1,30 @@
+package com.nisum.dto.user;
+
+import com.nisum.dto.registration.PhoneDTO;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for user lookups.
+ * <p>
+ * This class represents the information returned to other services reading
+ * a registered user. Unlike the registration response, it carries neither
+ * the password hash nor the user's token.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Data
+public class UserDetailsDTO {
+    private UUID id;
+    private LocalDateTime created;
+    private LocalDateTime modified;
+    private LocalDateTime lastLogin;
+    private String name;
+    private String email;
+    private boolean isActive;
+    private List<PhoneDTO> phones;
+}
@@ -0,0 +1,50 @@
+package com.nisum.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing an event waiting in the transactional outbox.
+ * <p>
+ * This class maps to the "outbox" table. An event is saved in the same
+ * transaction as the change it describes, so it exists if and only if that
+ * change was committed, and is deleted once the {@code OutboxRelay} has
+ * delivered it. Ids are allocated in blocks of 50 per sequence call, which
+ * keeps the inserts of a batch registration in JDBC batches.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Entity
+@NoArgsConstructor
+@Data
+@Table(name = "outbox")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID aggregateId;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,7 +13,8 @@ import lombok.NoArgsConstructor;
  * Entity representing a phone record in the database.
  * <p>
  * This class maps to the "phones" table and holds the phone details, including
- * an auto-generated identifier.
+ * a sequence-generated identifier. Ids are allocated in blocks of 50 per
+ * sequence call by Hibernate's pooled-lo optimizer.
  * </p>
  *
  * @author avasquez
@@ -24,7 +26,8 @@ import lombok.NoArgsConstructor;
 public class Phone {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "phones_seq")
+    @SequenceGenerator(name = "phones_seq", sequenceName = "phones_seq", allocationSize = 50)
     private Long id;
 
     private String number;
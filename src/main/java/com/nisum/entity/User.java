@@ -1,5 +1,7 @@
 package com.nisum.entity;
 
+import com.nisum.entity.id.ShardKeyed;
+import com.nisum.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,7 +14,13 @@ import java.util.UUID;
  * Entity representing a user record in the database.
  * <p>
  * This class maps to the "users" table and holds user details, including
- * an auto-generated identifier and associated phone numbers.
+ * a time-ordered UUID identifier and associated phone numbers. The schema is
+ * managed by the Flyway migrations under {@code db/migration}; emails are
+ * stored normalized and are unique.
+ * </p>
+ * <p>
+ * Users are sharded by email: the identifier embeds the shard bucket of
+ * the email, so a user's shard follows from either.
  * </p>
  *
  * @author avasquez
@@ -20,23 +28,33 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
-public class User {
+@EntityListeners(UserEmailListener.class)
+@Table(name = "users", indexes = @Index(name = "ux_users_email", columnList = "email", unique = true))
+public class User implements ShardKeyed {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     private String token;
     private String name;
+
+    @Column(nullable = false, unique = true)
     private String email;
+
     private String password;
 
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
     private List<Phone> phones;
 
     private LocalDateTime created;
     private LocalDateTime modified;
     private LocalDateTime lastLogin;
     private boolean isActive;
+
+    @Override
+    public String getShardKey() {
+        return email;
+    }
 }
@@ -0,0 +1,73 @@
+package com.nisum.entity.id;
+
+import java.util.UUID;
+
+/**
+ * Shard buckets of users: fixed hash slots, from 0 to {@value #COUNT} - 1,
+ * that shards own whole.
+ * <p>
+ * A user's bucket is a hash of its normalized email, and it is embedded in
+ * the user's identifier by {@link UuidV7Generator}, so the shard of a user
+ * can be found from either without a directory. Growing the number of shards
+ * changes which shard owns a bucket, never the bucket of a user.
+ * </p>
+ *
+ * @author avasquez
+ */
+public final class ShardBuckets {
+
+    /**
+     * Bits of the bucket, stored right after the variant of the identifier.
+     */
+    public static final int BITS = 10;
+
+    /**
+     * Number of buckets, the maximum number of shards.
+     */
+    public static final int COUNT = 1 << BITS;
+
+    private static final int SHIFT = 62 - BITS;
+
+    private ShardBuckets() {
+    }
+
+    /**
+     * Returns the bucket of an email.
+     *
+     * @param normalizedEmail the email address in its stored form
+     * @return the bucket of the email
+     */
+    public static int of(String normalizedEmail) {
+        // String.hashCode is specified, hence stable across JVMs; the finalizer of
+        // MurmurHash3 spreads it so that every bit of the email moves the bucket
+        int h = normalizedEmail.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & (COUNT - 1);
+    }
+
+    /**
+     * Returns the bucket embedded in a user identifier.
+     *
+     * @param id an identifier issued by {@link UuidV7Generator#next(int)}
+     * @return the bucket of the user
+     */
+    public static int of(UUID id) {
+        return (int) (id.getLeastSignificantBits() >>> SHIFT) & (COUNT - 1);
+    }
+
+    /**
+     * Places a bucket in the random bits of the least significant half of a
+     * version 7 UUID.
+     *
+     * @param random 62 random bits, in the low bits
+     * @param bucket the bucket to embed
+     * @return the least significant bits, without the variant
+     */
+    static long embed(long random, int bucket) {
+        return ((long) bucket << SHIFT) | (random >>> BITS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.nisum.entity.id;
+
+/**
+ * An entity stored on the shard of its shard key, whose generated
+ * identifier embeds the {@link ShardBuckets shard bucket} of that key.
+ *
+ * @author avasquez
+ */
+public interface ShardKeyed {
+
+    /**
+     * @return the value the entity is sharded by, in its stored form
+     */
+    String getShardKey();
+}
@@ -0,0 +1,97 @@
+package com.nisum.entity.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hibernate identifier generator for time-ordered UUIDs (RFC 9562, version 7).
+ * <p>
+ * The 48 most significant bits hold the Unix time in milliseconds, followed
+ * by a 12-bit counter and 62 random bits. Timestamp and counter are advanced
+ * together with a single compare-and-set on a shared {@code AtomicLong}, so
+ * identifiers are strictly increasing across all threads without locking.
+ * When more than 4096 ids are requested within one millisecond the counter
+ * carries into the timestamp, which keeps the sequence monotonic. Because
+ * new keys always land at the right edge of the primary key B-tree, inserts
+ * touch few pages, unlike random version 4 UUIDs.
+ * </p>
+ * <p>
+ * For entities implementing {@link ShardKeyed}, the first {@value ShardBuckets#BITS}
+ * random bits are replaced by the {@link ShardBuckets shard bucket} of the
+ * entity's shard key.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+    private static final int COUNTER_BITS = 12;
+
+    /**
+     * Last issued value of the 60-bit {@code timestamp << 12 | counter} field.
+     */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    /**
+     * Creates the generator for an attribute annotated with {@link UuidV7}.
+     *
+     * @param config  the annotation on the identifier attribute
+     * @param member  the identifier attribute
+     * @param context the Hibernate creation context
+     */
+    public UuidV7Generator(UuidV7 config, Member member, CustomIdGeneratorCreationContext context) {
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return object instanceof ShardKeyed keyed
+                ? next(ShardBuckets.of(keyed.getShardKey()))
+                : next();
+    }
+
+    /**
+     * Issues the next version 7 UUID.
+     *
+     * @return a UUID greater than every UUID previously issued by this process
+     */
+    public static UUID next() {
+        return new UUID(nextMostSignificantBits(),
+                (ThreadLocalRandom.current().nextLong() >>> 2) | 0x8000000000000000L);
+    }
+
+    /**
+     * Issues the next version 7 UUID, carrying a shard bucket.
+     *
+     * @param bucket the shard bucket to embed, see {@link ShardBuckets#of(UUID)}
+     * @return a UUID greater than every UUID previously issued by this process
+     */
+    public static UUID next(int bucket) {
+        long random = ThreadLocalRandom.current().nextLong() >>> 2;
+        return new UUID(nextMostSignificantBits(), ShardBuckets.embed(random, bucket) | 0x8000000000000000L);
+    }
+
+    /**
+     * Advances the timestamp and counter.
+     *
+     * @return the most significant bits of the next UUID
+     */
+    private static long nextMostSignificantBits() {
+        long candidate = System.currentTimeMillis() << COUNTER_BITS;
+        long timeAndCounter;
+        long last;
+        do {
+            last = LAST.get();
+            timeAndCounter = Math.max(candidate, last + 1);
+        } while (!LAST.compareAndSet(last, timeAndCounter));
+
+        long timestamp = timeAndCounter >>> COUNTER_BITS;
+        long counter = timeAndCounter & ((1L << COUNTER_BITS) - 1);
+        return (timestamp << 16) | (0x7L << 12) | counter;
+    }
+}
@@ -0,0 +1,34 @@
+package com.nisum.exception;
+
+/**
+ * Base class of the exceptions that report an expected business outcome,
+ * such as an invalid or already registered email, rather than a fault.
+ * <p>
+ * These exceptions are thrown on every rejected request, so they are cheap
+ * to create: they record no stack trace and no suppressed exceptions, and
+ * they carry the key of their message in {@code messages.properties}
+ * instead of a resolved text. The key is also their detail message. The
+ * {@link GlobalExceptionHandler} turns the key into a JSON body in the
+ * language of the request.
+ * </p>
+ *
+ * @author avasquez
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    /**
+     * Constructs a new BusinessException without stack trace.
+     *
+     * @param messageKey the key of the message explaining the reason for the exception
+     */
+    protected BusinessException(String messageKey) {
+        super(messageKey, null, false, false);
+    }
+
+    /**
+     * @return the key of the message explaining the reason for the exception
+     */
+    public String getMessageKey() {
+        return getMessage();
+    }
+}
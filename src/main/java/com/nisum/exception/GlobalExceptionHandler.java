@@ -1,21 +1,45 @@
 package com.nisum.exception;
 
+import com.nisum.exception.admission.RateLimitedException;
 import com.nisum.exception.email.EmailAlreadyExistsException;
 import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.exception.login.InvalidCredentialsException;
+import com.nisum.exception.registration.IdempotencyKeyReusedException;
+import com.nisum.exception.registration.RegistrationBusyException;
+import com.nisum.exception.user.UserNotFoundException;
+import com.nisum.utils.ErrorResponses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.LocaleResolver;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Global exception handler for the application.
  * <p>
  * This class handles exceptions thrown by the application and returns appropriate
  * HTTP responses, including specific handlers for invalid email and email already
- * existing exceptions.
+ * existing exceptions. Every handled exception increments the
+ * {@code api.errors} counter, tagged with the exception and response status.
+ * </p>
+ * <p>
+ * Business exceptions ({@link BusinessException}) are expected on every
+ * rejected request, so their responses are cheap: the JSON body is taken
+ * from {@link ErrorResponses}, serialized once per message and language,
+ * and written out as is.
  * </p>
  *
  * @author avasquez
@@ -23,30 +47,150 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String INVALID_REQUEST_KEY = "request.invalid";
+    private static final String INVALID_PARAMETER_KEY = "request.invalid_parameter";
+
+    @Value("${hashing.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ErrorResponses errorResponses;
+
+    @Autowired
+    private LocaleResolver localeResolver;
+
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+
     /**
      * Handles InvalidEmailException and returns a 400 Bad Request response.
      *
-     * @param ex the exception thrown
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
      * @return a ResponseEntity containing error details and HTTP status
      */
     @ExceptionHandler(InvalidEmailException.class)
-    public ResponseEntity<Map<String, String>> handleInvalidEmail(InvalidEmailException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleInvalidEmail(InvalidEmailException ex, HttpServletRequest request) {
+        return errorResponse(ex, HttpStatus.BAD_REQUEST, request);
     }
 
     /**
      * Handles EmailAlreadyExistsException and returns a 409 Conflict response.
      *
-     * @param ex the exception thrown
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
      * @return a ResponseEntity containing error details and HTTP status
      */
     @ExceptionHandler(EmailAlreadyExistsException.class)
-    public ResponseEntity<Map<String, String>> handleEmailAlreadyExists(EmailAlreadyExistsException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    public ResponseEntity<byte[]> handleEmailAlreadyExists(EmailAlreadyExistsException ex, HttpServletRequest request) {
+        return errorResponse(ex, HttpStatus.CONFLICT, request);
+    }
+
+    /**
+     * Handles InvalidCredentialsException and returns a 401 Unauthorized response.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<byte[]> handleInvalidCredentials(InvalidCredentialsException ex, HttpServletRequest request) {
+        return errorResponse(ex, HttpStatus.UNAUTHORIZED, request);
+    }
+
+    /**
+     * Handles UserNotFoundException and returns a 404 Not Found response.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<byte[]> handleUserNotFound(UserNotFoundException ex, HttpServletRequest request) {
+        return errorResponse(ex, HttpStatus.NOT_FOUND, request);
+    }
+
+    /**
+     * Handles IdempotencyKeyReusedException and returns a 422 Unprocessable Entity response.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<byte[]> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex, HttpServletRequest request) {
+        return errorResponse(ex, HttpStatus.UNPROCESSABLE_ENTITY, request);
+    }
+
+    /**
+     * Handles RegistrationBusyException and returns a 503 Service Unavailable response
+     * with a {@code Retry-After} header.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(RegistrationBusyException.class)
+    public ResponseEntity<byte[]> handleRegistrationBusy(RegistrationBusyException ex, HttpServletRequest request) {
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(ex.getMessageKey(), localeResolver.resolveLocale(request)));
+    }
+
+    /**
+     * Handles RateLimitedException and returns a 429 Too Many Requests response
+     * with a {@code Retry-After} header.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<byte[]> handleRateLimited(RateLimitedException ex, HttpServletRequest request) {
+        countError(ex, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(ex.getMessageKey(), localeResolver.resolveLocale(request)));
+    }
+
+    /**
+     * Handles MethodArgumentNotValidException, raised when a request body
+     * breaks its constraints, and returns a 400 Bad Request response.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<byte[]> handleInvalidRequest(MethodArgumentNotValidException ex, HttpServletRequest request) {
+        countError(ex, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(INVALID_REQUEST_KEY, localeResolver.resolveLocale(request)));
+    }
+
+    /**
+     * Handles MethodArgumentTypeMismatchException, raised when a path variable
+     * or request parameter cannot be converted to its type (such as a
+     * malformed user id or an unknown export format), and returns a 400 Bad
+     * Request response.
+     *
+     * @param ex      the exception thrown
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<byte[]> handleInvalidParameter(MethodArgumentTypeMismatchException ex,
+                                                         HttpServletRequest request) {
+        countError(ex, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(INVALID_PARAMETER_KEY, localeResolver.resolveLocale(request)));
     }
 
     /**
@@ -57,8 +201,40 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGeneralException(Exception ex) {
+        countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         Map<String, String> error = new HashMap<>();
         error.put("error", "An unexpected error occurred: " + ex.getMessage());
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * Builds the response of a business exception from its pre-serialized body.
+     *
+     * @param ex      the exception thrown
+     * @param status  the response status to return
+     * @param request the request being answered, whose language is used
+     * @return a ResponseEntity containing the JSON error body and HTTP status
+     */
+    private ResponseEntity<byte[]> errorResponse(BusinessException ex, HttpStatus status, HttpServletRequest request) {
+        countError(ex, status);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(ex.getMessageKey(), localeResolver.resolveLocale(request)));
+    }
+
+    /**
+     * Counts a handled exception in the {@code api.errors} counter.
+     * <p>
+     * The counter of each exception class is looked up once: a class is
+     * always answered with the same status.
+     * </p>
+     *
+     * @param ex     the exception thrown
+     * @param status the response status returned for it
+     */
+    private void countError(Exception ex, HttpStatus status) {
+        errorCounters.computeIfAbsent(ex.getClass(), type -> meterRegistry.counter("api.errors",
+                "exception", type.getSimpleName(),
+                "status", String.valueOf(status.value()))).increment();
+    }
 }
@@ -0,0 +1,40 @@
+package com.nisum.exception.admission;
+
+import com.nisum.exception.BusinessException;
+
+/**
+ * Custom exception thrown when a client exceeds its admission rate.
+ * <p>
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message, along with the time the client should
+ * wait before retrying, sent back in the {@code Retry-After} header.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class RateLimitedException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "admission.rate_limited";
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new RateLimitedException.
+     *
+     * @param retryAfterSeconds the seconds to wait before retrying
+     */
+    public RateLimitedException(long retryAfterSeconds) {
+        super(MESSAGE_KEY);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return the seconds to wait before retrying
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
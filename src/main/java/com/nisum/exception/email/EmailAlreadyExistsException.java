@@ -1,23 +1,28 @@
 package com.nisum.exception.email;
 
+import com.nisum.exception.BusinessException;
+
 /**
  * Custom exception thrown when a user attempts to register with an email
  * that already exists in the system.
  * <p>
- * This exception extends {@code RuntimeException} and provides a message
- * to indicate the reason for the error.
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message.
  * </p>
  *
  * @author avasquez
  */
-public class EmailAlreadyExistsException extends RuntimeException {
+public class EmailAlreadyExistsException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "email.already_registered";
 
     /**
-     * Constructs a new EmailAlreadyExistsException with the specified detail message.
-     *
-     * @param message the detail message explaining the reason for the exception
+     * Constructs a new EmailAlreadyExistsException.
      */
-    public EmailAlreadyExistsException(String message) {
-        super(message);
+    public EmailAlreadyExistsException() {
+        super(MESSAGE_KEY);
     }
 }
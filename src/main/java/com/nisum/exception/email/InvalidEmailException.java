@@ -1,22 +1,27 @@
 package com.nisum.exception.email;
 
+import com.nisum.exception.BusinessException;
+
 /**
  * Custom exception thrown when an invalid email format is encountered.
  * <p>
- * This exception extends {@code RuntimeException} and provides a message
- * to indicate the reason for the error.
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message.
  * </p>
  *
  * @author avasquez
  */
-public class InvalidEmailException extends RuntimeException {
+public class InvalidEmailException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "email.invalid";
 
     /**
-     * Constructs a new InvalidEmailException with the specified detail message.
-     *
-     * @param message the detail message explaining the reason for the exception
+     * Constructs a new InvalidEmailException.
      */
-    public InvalidEmailException(String message) {
-        super(message);
+    public InvalidEmailException() {
+        super(MESSAGE_KEY);
     }
 }
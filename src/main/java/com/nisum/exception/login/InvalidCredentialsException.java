@@ -0,0 +1,28 @@
+package com.nisum.exception.login;
+
+import com.nisum.exception.BusinessException;
+
+/**
+ * Custom exception thrown when a login does not match any active user.
+ * <p>
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message. The same message is used whether
+ * the email or the password is wrong.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class InvalidCredentialsException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "login.invalid_credentials";
+
+    /**
+     * Constructs a new InvalidCredentialsException.
+     */
+    public InvalidCredentialsException() {
+        super(MESSAGE_KEY);
+    }
+}
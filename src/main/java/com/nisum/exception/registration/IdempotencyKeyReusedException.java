@@ -0,0 +1,28 @@
+package com.nisum.exception.registration;
+
+import com.nisum.exception.BusinessException;
+
+/**
+ * Custom exception thrown when an {@code Idempotency-Key} is sent again with
+ * a request that differs from the one it was first used for.
+ * <p>
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class IdempotencyKeyReusedException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "idempotency.key_reused";
+
+    /**
+     * Constructs a new IdempotencyKeyReusedException.
+     */
+    public IdempotencyKeyReusedException() {
+        super(MESSAGE_KEY);
+    }
+}
@@ -0,0 +1,28 @@
+package com.nisum.exception.registration;
+
+import com.nisum.exception.BusinessException;
+
+/**
+ * Custom exception thrown when a registration cannot be accepted because
+ * the password hashing capacity is exhausted.
+ * <p>
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class RegistrationBusyException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "registration.busy";
+
+    /**
+     * Constructs a new RegistrationBusyException.
+     */
+    public RegistrationBusyException() {
+        super(MESSAGE_KEY);
+    }
+}
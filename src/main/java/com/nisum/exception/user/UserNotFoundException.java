@@ -0,0 +1,27 @@
+package com.nisum.exception.user;
+
+import com.nisum.exception.BusinessException;
+
+/**
+ * Custom exception thrown when a requested user does not exist.
+ * <p>
+ * This exception extends {@link BusinessException}: it has no stack trace
+ * and carries the key of its message.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class UserNotFoundException extends BusinessException {
+
+    /**
+     * The key of the message of this exception.
+     */
+    public static final String MESSAGE_KEY = "user.not_found";
+
+    /**
+     * Constructs a new UserNotFoundException.
+     */
+    public UserNotFoundException() {
+        super(MESSAGE_KEY);
+    }
+}
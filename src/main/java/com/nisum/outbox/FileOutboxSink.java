@@ -0,0 +1,83 @@
+package com.nisum.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.nisum.entity.OutboxEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link OutboxSink} that appends the events to a file, one JSON object per
+ * line, for tests and for downstream systems that tail a file.
+ * <p>
+ * Each line holds the event id, type, aggregate id, creation time and
+ * payload. A batch is written with a single append and forced to disk before
+ * {@link #deliver(List)} returns, so a delivered batch survives a crash.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates the sink; the file and its directory are created on the first delivery.
+     *
+     * @param path         the file the events are appended to
+     * @param objectMapper the mapper writing each line
+     */
+    public FileOutboxSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        try {
+            for (OutboxEvent event : events) {
+                lines.write(toJson(event));
+                lines.write(NEW_LINE);
+            }
+            Path directory = path.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not append " + events.size() + " outbox events to " + path, ex);
+        }
+    }
+
+    private byte[] toJson(OutboxEvent event) throws JsonProcessingException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", event.getId());
+        line.put("type", event.getEventType());
+        line.put("aggregateId", event.getAggregateId());
+        line.put("created", event.getCreated());
+        line.put("payload", new RawValue(event.getPayload()));
+        return objectMapper.writeValueAsBytes(line);
+    }
+}
@@ -0,0 +1,29 @@
+package com.nisum.outbox;
+
+import com.nisum.entity.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * {@link OutboxSink} that only logs the events, for environments without a
+ * downstream system: one line per batch at {@code INFO}, and every event at
+ * {@code DEBUG}.
+ *
+ * @author avasquez
+ */
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        log.info("Delivered {} outbox events", events.size());
+        if (log.isDebugEnabled()) {
+            for (OutboxEvent event : events) {
+                log.debug("Outbox event {} {} {}", event.getId(), event.getEventType(), event.getPayload());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nisum.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.entity.OutboxEvent;
+import com.nisum.entity.User;
+import com.nisum.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes events to the transactional outbox.
+ * <p>
+ * Events must be written in the transaction of the change they describe:
+ * the methods of this class refuse to run without one. Nothing is sent to
+ * downstream systems here; the {@link OutboxRelay} delivers the events once
+ * the transaction has committed, off the request path.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class OutboxPublisher {
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Adds a {@code UserRegistered} event for each of the given users, which
+     * must already have their identifiers.
+     *
+     * @param users the users just saved in the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userRegistered(List<User> users) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(users.size());
+        for (User user : users) {
+            OutboxEvent event = new OutboxEvent();
+            event.setAggregateId(user.getId());
+            event.setEventType(UserRegisteredEvent.TYPE);
+            event.setPayload(toJson(new UserRegisteredEvent(
+                    user.getId(), user.getName(), user.getEmail(), user.getCreated())));
+            event.setCreated(now);
+            events.add(event);
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize the outbox payload " + payload, ex);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.nisum.outbox;
+
+import com.nisum.entity.OutboxEvent;
+import com.nisum.utils.UserShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Background relay delivering the events of the transactional outbox to the
+ * {@link OutboxSink}.
+ * <p>
+ * Every {@code outbox.relay.poll-interval-ms} the relay drains the outbox
+ * in batches of {@code outbox.relay.batch-size} events. Each batch is
+ * handled in one transaction: the oldest rows are selected with
+ * {@code FOR UPDATE SKIP LOCKED}, handed to the sink, and deleted with a
+ * single statement. Rows locked by another relay (another instance of the
+ * application) are skipped instead of waited for, so several relays share
+ * the outbox without delivering the same batch twice. If the sink fails,
+ * the transaction is rolled back and the batch stays for the next poll.
+ * Events are written on the shard of their user, so a sharded outbox is
+ * drained one shard after the other.
+ * </p>
+ * <p>
+ * Metrics: {@code outbox.relay.delivered} counts delivered events (the
+ * relay throughput), {@code outbox.relay.failures} counts failed batches,
+ * {@code outbox.relay.delivery.lag} times each event from its creation to
+ * its delivery, and the {@code outbox.relay.lag} gauge is the age of the
+ * oldest undelivered event seen by the last poll, which keeps growing while
+ * the relay is stuck.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String SELECT_BATCH =
+            "select id, aggregate_id, event_type, payload, created from outbox"
+                    + " order by id fetch first ? rows only for update skip locked";
+    private static final String DELETE_DELIVERED = "delete from outbox where id in (:ids)";
+    private static final String SELECT_OLDEST = "select min(created) from outbox";
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(rs.getLong("id"));
+        event.setAggregateId(rs.getObject("aggregate_id", UUID.class));
+        event.setEventType(rs.getString("event_type"));
+        event.setPayload(rs.getString("payload"));
+        event.setCreated(rs.getTimestamp("created").toLocalDateTime());
+        return event;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final UserShards userShards;
+    private final int batchSize;
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer deliveryLag;
+
+    private volatile LocalDateTime oldestPending;
+
+    /**
+     * Creates the relay and registers its metrics.
+     *
+     * @param dataSource         the datasource holding the {@code outbox} table
+     * @param transactionManager the transaction manager of that datasource
+     * @param sink               the destination of the events
+     * @param userShards         the shards holding an outbox
+     * @param meterRegistry      the registry where the metrics are published
+     * @param batchSize          the maximum number of events delivered per transaction
+     */
+    public OutboxRelay(DataSource dataSource, PlatformTransactionManager transactionManager, OutboxSink sink,
+                       UserShards userShards, MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.userShards = userShards;
+        this.batchSize = batchSize;
+        this.delivered = Counter.builder("outbox.relay.delivered")
+                .description("Outbox events delivered to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Outbox batches whose delivery failed and will be retried")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.relay.delivery.lag")
+                .description("Time from the creation of an outbox event to its delivery")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", this, OutboxRelay::lagSeconds)
+                .description("Age of the oldest undelivered outbox event at the last poll")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers every pending event of every shard, batch by batch, until
+     * each outbox is drained or a delivery fails.
+     *
+     * @return the number of events delivered
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}",
+            initialDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public int relay() {
+        int total = 0;
+        LocalDateTime oldest = null;
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            total += userShards.on(shard, this::relayShard);
+            LocalDateTime shardOldest = userShards.on(shard,
+                    () -> jdbcTemplate.queryForObject(SELECT_OLDEST, LocalDateTime.class));
+            if (shardOldest != null && (oldest == null || shardOldest.isBefore(oldest))) {
+                oldest = shardOldest;
+            }
+        }
+        oldestPending = oldest;
+        return total;
+    }
+
+    /**
+     * Drains the outbox of the shard bound to the calling thread.
+     *
+     * @return the number of events delivered
+     */
+    private int relayShard() {
+        int total = 0;
+        try {
+            int count;
+            do {
+                count = relayBatch();
+                total += count;
+            } while (count == batchSize);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Could not deliver outbox events, retrying on the next poll", ex);
+        }
+        return total;
+    }
+
+    /**
+     * Delivers and deletes one batch in its own transaction.
+     *
+     * @return the number of events delivered
+     */
+    private int relayBatch() {
+        List<OutboxEvent> events = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = jdbcTemplate.query(SELECT_BATCH, EVENT_MAPPER, batchSize);
+            if (!batch.isEmpty()) {
+                sink.deliver(batch);
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (OutboxEvent event : batch) {
+                    ids.add(event.getId());
+                }
+                namedJdbcTemplate.update(DELETE_DELIVERED, Map.of("ids", ids));
+            }
+            return batch;
+        });
+
+        // Only counted once the delete is committed
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            deliveryLag.record(Duration.between(event.getCreated(), now));
+        }
+        delivered.increment(events.size());
+        return events.size();
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestPending;
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.nisum.outbox;
+
+import com.nisum.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the events relayed from the outbox, such as a message
+ * broker or an HTTP endpoint of a downstream system.
+ * <p>
+ * The {@link OutboxRelay} hands events over in batches, in id order, and
+ * deletes a batch only after {@link #deliver(List)} returned. A batch whose
+ * delivery failed is delivered again on the next poll, including the events
+ * the sink may already have accepted: delivery is at least once, and
+ * consumers recognize repeated events by their id.
+ * </p>
+ *
+ * @author avasquez
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch of events.
+     *
+     * @param events the events to deliver, in id order
+     * @throws RuntimeException if any event of the batch could not be delivered
+     */
+    void deliver(List<OutboxEvent> events);
+}
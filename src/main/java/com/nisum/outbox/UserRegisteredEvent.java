@@ -0,0 +1,23 @@
+package com.nisum.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payload of the {@code UserRegistered} outbox event, announcing a new user
+ * to downstream systems such as the welcome email or the CRM sync. It never
+ * carries the password hash or the token.
+ *
+ * @param id      the identifier of the new user
+ * @param name    the user's name
+ * @param email   the normalized email address
+ * @param created the registration time
+ * @author avasquez
+ */
+public record UserRegisteredEvent(UUID id, String name, String email, LocalDateTime created) {
+
+    /**
+     * The event type stored in the outbox.
+     */
+    public static final String TYPE = "UserRegistered";
+}
@@ -0,0 +1,17 @@
+package com.nisum.repository;
+
+import com.nisum.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for writing {@code OutboxEvent} entities.
+ * <p>
+ * Events are only inserted through JPA, within the transaction of the
+ * change they describe; the {@code OutboxRelay} reads and deletes them with
+ * plain JDBC, as it needs {@code SKIP LOCKED}.
+ * </p>
+ *
+ * @author avasquez
+ */
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+}
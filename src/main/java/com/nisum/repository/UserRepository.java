@@ -1,9 +1,21 @@
 package com.nisum.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import com.nisum.entity.User;
 
@@ -14,11 +26,21 @@ import com.nisum.entity.User;
  * and custom query methods for the {@code User} entity identified by a
  * {@code UUID}.
  * </p>
+ * <p>
+ * Its query methods run in read-only transactions, like the inherited
+ * finders, so they are sent to the read replica when one is configured.
+ * </p>
  *
  * @author avasquez
  */
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, UUID> {
 
+    /**
+     * Rows fetched per round trip by the export streams.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
     /**
      * Retrieves a user by their email address.
      *
@@ -26,4 +48,73 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @return an {@code Optional} containing the user if found, or empty if not
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Retrieves a user and its phones in a single query.
+     *
+     * @param id the identifier of the user
+     * @return an {@code Optional} containing the user if found, or empty if not
+     */
+    @EntityGraph(attributePaths = "phones")
+    Optional<User> findWithPhonesById(UUID id);
+
+    /**
+     * Retrieves a user and its phones by email address in a single query.
+     *
+     * @param email the normalized email address of the user
+     * @return an {@code Optional} containing the user if found, or empty if not
+     */
+    @EntityGraph(attributePaths = "phones")
+    Optional<User> findWithPhonesByEmail(String email);
+
+    /**
+     * Streams every user with its phones in id order, reading
+     * {@value #EXPORT_FETCH_SIZE} rows per round trip. Must be consumed
+     * inside a transaction and closed afterwards.
+     *
+     * @return the users, ordered by id
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select u from User u left join fetch u.phones order by u.id")
+    Stream<User> streamAllWithPhones();
+
+    /**
+     * Streams the users with an id greater than {@code after}, with their
+     * phones, in id order. Used to resume an export from the last id received.
+     *
+     * @param after the last id already exported
+     * @return the remaining users, ordered by id
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select u from User u left join fetch u.phones where u.id > :after order by u.id")
+    Stream<User> streamWithPhonesAfter(@Param("after") UUID after);
+
+    /**
+     * Returns which of the given email addresses are already registered,
+     * using a single {@code IN} query.
+     *
+     * @param emails the email addresses to check
+     * @return the subset of {@code emails} that already belong to a user
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Replaces a user's password hash, unless it changed since it was read.
+     *
+     * @param id          the identifier of the user
+     * @param expected    the hash the user is expected to still have
+     * @param replacement the new hash
+     * @return the number of users updated, 0 if the hash had already changed
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :replacement where u.id = :id and u.password = :expected")
+    int updatePassword(@Param("id") UUID id,
+                       @Param("expected") String expected,
+                       @Param("replacement") String replacement);
 }
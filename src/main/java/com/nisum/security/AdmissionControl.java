@@ -0,0 +1,166 @@
+package com.nisum.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nisum.exception.admission.RateLimitedException;
+import com.nisum.utils.PasswordHasher;
+import com.nisum.utils.StripedTokenBucket;
+import com.nisum.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket admission control for the endpoints that hash passwords.
+ * <p>
+ * Every request first takes a token from the bucket of its client, refilled
+ * at {@code admission.client.rate-per-second} up to
+ * {@code admission.client.burst} tokens, and then from a global
+ * {@link StripedTokenBucket} shared by all clients. By default the global
+ * rate is the hashing capacity of the host: as many hashes per second per
+ * processor as fit in the hash time measured by the {@link PasswordHasher}
+ * at startup. A client flooding the API
+ * thus only drains its own bucket, while many clients together cannot queue
+ * more hashes than the host can serve.
+ * </p>
+ * <p>
+ * A request normally costs one token. A batch registration costs one token
+ * per user it carries, taken as each user is parsed (see
+ * {@link #admitEach(String, Iterator)}), since each of them is one more hash.
+ * </p>
+ * <p>
+ * Client buckets are kept in a Caffeine cache bounded to
+ * {@code admission.client.max-clients} entries and evicted once idle for
+ * {@code admission.client.idle-seconds} (never before a drained bucket
+ * would have refilled), so memory stays bounded however many addresses are
+ * seen. Rejections are counted in {@code admission.rejected}, tagged with
+ * the bucket that rejected them.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class AdmissionControl {
+
+    private final TokenBucket clientBucket;
+    private final Cache<String, AtomicLong> clients;
+    private final StripedTokenBucket globalBucket;
+    private final Counter clientRejections;
+    private final Counter globalRejections;
+
+    /**
+     * Creates the buckets and registers their metrics.
+     *
+     * @param meterRegistry  the registry where the metrics are published
+     * @param passwordHasher measures the hash time the default global rate is derived from
+     * @param clientRate     tokens per second of each client bucket
+     * @param clientBurst    capacity of each client bucket
+     * @param maxClients     maximum number of client buckets kept
+     * @param idleSeconds    time after which an unused client bucket is dropped
+     * @param globalRate     tokens per second of the global bucket, 0 for the hashing capacity
+     * @param globalBurst    capacity of the global bucket, 0 for one second of its rate
+     */
+    public AdmissionControl(MeterRegistry meterRegistry, PasswordHasher passwordHasher,
+                            @Value("${admission.client.rate-per-second:5}") double clientRate,
+                            @Value("${admission.client.burst:10}") int clientBurst,
+                            @Value("${admission.client.max-clients:1000000}") long maxClients,
+                            @Value("${admission.client.idle-seconds:60}") long idleSeconds,
+                            @Value("${admission.global.rate-per-second:0}") double globalRate,
+                            @Value("${admission.global.burst:0}") int globalBurst) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        double effectiveGlobalRate = globalRate > 0
+                ? globalRate
+                : processors * 1e9 / Math.max(1, passwordHasher.getHashNanos());
+        int effectiveGlobalBurst = globalBurst > 0 ? globalBurst : (int) Math.max(1, Math.ceil(effectiveGlobalRate));
+
+        this.clientBucket = new TokenBucket(clientRate, clientBurst);
+        Duration refill = Duration.ofNanos((long) (clientBurst / clientRate * 1_000_000_000L));
+        Duration idle = Duration.ofSeconds(idleSeconds);
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle.compareTo(refill) >= 0 ? idle : refill)
+                .recordStats()
+                .build();
+        this.globalBucket = new StripedTokenBucket(effectiveGlobalRate, effectiveGlobalBurst, processors);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, clients, "admission.clients");
+        this.clientRejections = rejectionCounter(meterRegistry, "client");
+        this.globalRejections = rejectionCounter(meterRegistry, "global");
+    }
+
+    /**
+     * Takes a token from the client's bucket, then from the global one.
+     *
+     * @param client the client key, usually its IP address
+     * @return 0 if the request is admitted, otherwise the nanoseconds to wait before retrying
+     */
+    public long tryAdmit(String client) {
+        long now = System.nanoTime();
+        long wait = clientBucket.tryTake(clients.get(client, key -> clientBucket.newState(now)), now);
+        if (wait > 0) {
+            clientRejections.increment();
+            return wait;
+        }
+        wait = globalBucket.tryTake(now);
+        if (wait > 0) {
+            globalRejections.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Wraps the items of a request so that each one is admitted before it
+     * is returned: {@link Iterator#next()} takes a token for {@code client}
+     * as in {@link #tryAdmit(String)} and fails once the client or the host
+     * is over its rate. Items returned before the failure have been paid
+     * for and may be processed.
+     *
+     * @param client the client key, usually its IP address
+     * @param items  the items of the request, read lazily
+     * @param <T>    the item type
+     * @return an iterator over {@code items} charging one token per item
+     */
+    public <T> Iterator<T> admitEach(String client, Iterator<T> items) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public T next() {
+                T item = items.next();
+                long wait = tryAdmit(client);
+                if (wait > 0) {
+                    throw new RateLimitedException(retryAfterSeconds(wait));
+                }
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Converts a wait returned by {@link #tryAdmit(String)} to the whole
+     * seconds sent in a {@code Retry-After} header, rounded up.
+     *
+     * @param waitNanos the nanoseconds to wait
+     * @return the seconds to wait, at least 1
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String bucket) {
+        return Counter.builder("admission.rejected")
+                .tag("bucket", bucket)
+                .description("Requests rejected with 429 by admission control")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.nisum.security;
+
+import com.nisum.utils.ErrorResponses;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.LocaleResolver;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Rejects requests to the password-hashing endpoints with 429 Too Many
+ * Requests once their client exceeds its rate, as decided by
+ * {@link AdmissionControl}.
+ * <p>
+ * It runs in the security filter chain before authentication, so a rejected
+ * request is answered before its body is read, parsed or hashed. The
+ * {@code Retry-After} header tells when a token will be available, and the
+ * JSON body is pre-serialized by {@link ErrorResponses} in the language of
+ * the request. Clients are keyed
+ * by {@link HttpServletRequest#getRemoteAddr()}; behind a reverse proxy,
+ * {@code server.forward-headers-strategy} must be set so that it is the
+ * client's address rather than the proxy's.
+ * </p>
+ * <p>
+ * The batch registration endpoint is not filtered here: it is charged one
+ * token per user by the {@code UserController} instead.
+ * </p>
+ * <p>
+ * This filter is not a Spring bean on purpose: it is added to the security
+ * filter chain only, instead of also being registered as a servlet filter.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String MESSAGE_KEY = "admission.rate_limited";
+
+    private final AdmissionControl admissionControl;
+    private final Set<String> paths;
+    private final ErrorResponses errorResponses;
+    private final LocaleResolver localeResolver;
+
+    /**
+     * Creates the filter.
+     *
+     * @param admissionControl decides whether each request is admitted
+     * @param paths            the paths whose {@code POST} requests are rate limited
+     * @param errorResponses   provides the JSON body of 429 responses
+     * @param localeResolver   resolves the language of that body
+     */
+    public AdmissionControlFilter(AdmissionControl admissionControl, Set<String> paths,
+                                  ErrorResponses errorResponses, LocaleResolver localeResolver) {
+        this.admissionControl = admissionControl;
+        this.paths = paths;
+        this.errorResponses = errorResponses;
+        this.localeResolver = localeResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = admissionControl.tryAdmit(request.getRemoteAddr());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(AdmissionControl.retryAfterSeconds(waitNanos)));
+        byte[] rejectionBody = errorResponses.body(MESSAGE_KEY, localeResolver.resolveLocale(request));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+}
@@ -0,0 +1,104 @@
+package com.nisum.security;
+
+import com.nisum.utils.JwtUtil.VerifiedToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Authenticates requests carrying an {@code Authorization: Bearer} token
+ * issued by {@code JwtUtil}.
+ * <p>
+ * The token is checked by the {@link VerifiedTokenCache}, so only its
+ * signature and expiration are verified and no database lookup is made. A
+ * valid token authenticates the request as its subject; a missing or invalid
+ * one leaves the request anonymous, to be rejected by the authorization rules.
+ * </p>
+ * <p>
+ * Tokens of the subjects listed in {@code jwt.admin-emails} are also granted
+ * {@code ROLE_ADMIN}, required by the operations on every user at once. As
+ * registration is open, no other way of becoming an administrator exists.
+ * </p>
+ * <p>
+ * This filter is not a Spring bean on purpose: it is added to the security
+ * filter chain only, instead of also being registered as a servlet filter.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Set<String> adminEmails;
+
+    /**
+     * Creates the filter.
+     *
+     * @param verifiedTokenCache verifies and caches bearer tokens
+     * @param adminEmails        the subjects granted {@code ROLE_ADMIN}, in any case
+     */
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, Collection<String> adminEmails) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.adminEmails = adminEmails.stream()
+                .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                .filter(email -> !email.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            Optional<VerifiedToken> verified = verifiedTokenCache.verify(header.substring(BEARER_PREFIX.length()).trim());
+            if (verified.isPresent()) {
+                String subject = verified.get().subject();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new UsernamePasswordAuthenticationToken(subject, null,
+                        adminEmails.contains(subject) ? ADMIN_AUTHORITIES : Collections.emptyList()));
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Authenticates async dispatches too (such as the completion of a
+     * streaming response), since sessions are stateless and nothing else
+     * carries the authentication over from the initial dispatch.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /**
+     * Authenticates error dispatches too, for the same reason.
+     */
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+}
@@ -0,0 +1,119 @@
+package com.nisum.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nisum.utils.JwtUtil;
+import com.nisum.utils.JwtUtil.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * <p>
+ * Repeated requests carrying the same bearer token skip the HMAC and the
+ * claims parsing. Each entry expires when its token does, or after
+ * {@code jwt.cache.max-ttl} if that comes first, and the cache never holds
+ * more than {@code jwt.cache.max-size} tokens. Hit rate is published as the
+ * {@code cache.*} metrics of the {@code jwt.verified} cache, and verification
+ * latency as the {@code jwt.verification} timer, tagged by outcome.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> cache;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    /**
+     * Creates the cache and registers its metrics.
+     *
+     * @param jwtUtil       verifies tokens missing from the cache
+     * @param meterRegistry the registry where the metrics are published
+     * @param maxSize       maximum number of cached tokens
+     * @param maxTtlSeconds maximum time a token stays cached, in seconds
+     */
+    public VerifiedTokenCache(JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:100000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl-seconds:600}") long maxTtlSeconds) {
+        this.jwtUtil = jwtUtil;
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                verified.expiresAtMillis() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified,
+                                                  long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+        this.cachedTimer = verificationTimer(meterRegistry, "cached");
+        this.verifiedTimer = verificationTimer(meterRegistry, "verified");
+        this.rejectedTimer = verificationTimer(meterRegistry, "rejected");
+    }
+
+    /**
+     * Returns the verified claims of a token, checking the signature only
+     * if the token is not cached yet.
+     *
+     * @param token the compact serialized token
+     * @return the verified claims, or empty if the token is invalid or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        long start = System.nanoTime();
+        VerifiedToken cached = cache.getIfPresent(token);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached);
+        }
+        Optional<VerifiedToken> verified = jwtUtil.verifyToken(token);
+        if (verified.isPresent()) {
+            cache.put(token, verified.get());
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return verified;
+    }
+
+    /**
+     * @return the underlying cache, for statistics
+     */
+    public Cache<String, VerifiedToken> getCache() {
+        return cache;
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("jwt.verification")
+                .tag("result", result)
+                .description("Time to authenticate a bearer token")
+                .register(meterRegistry);
+    }
+}
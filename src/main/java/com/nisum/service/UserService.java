@@ -1,7 +1,17 @@
 package com.nisum.service;
 
+import com.nisum.dto.login.LoginRequestDTO;
+import com.nisum.dto.login.LoginResponseDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO;
 import com.nisum.dto.registration.UserRequestDTO;
 import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.dto.user.UserDetailsDTO;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Service interface for user-related operations, including user registration
@@ -21,6 +31,56 @@ public interface UserService {
      */
     UserResponseDTO registerUser(UserRequestDTO userRequestDTO);
 
+    /**
+     * Registers a new user without blocking the caller on password hashing.
+     *
+     * @param userRequestDTO the DTO containing user registration details
+     * @return a future completed with the registered user's details
+     */
+    CompletableFuture<UserResponseDTO> registerUserAsync(UserRequestDTO userRequestDTO);
+
+    /**
+     * Registers a stream of users in bounded chunks, reporting one result per item.
+     *
+     * @param requests       the registration requests, consumed lazily
+     * @param locale         the language of the error messages of failed items
+     * @param resultConsumer receives the outcome of each item, in input order
+     */
+    void registerUsersBatch(Iterator<UserRequestDTO> requests, Locale locale,
+                            Consumer<BatchRegistrationResultDTO> resultConsumer);
+
+    /**
+     * Authenticates a user by email and password and issues a new token.
+     *
+     * @param loginRequestDTO the DTO containing the credentials
+     * @return LoginResponseDTO containing the user's identity and token
+     */
+    LoginResponseDTO login(LoginRequestDTO loginRequestDTO);
+
+    /**
+     * Retrieves a registered user by identifier.
+     *
+     * @param id the user identifier
+     * @return the user's details
+     */
+    UserDetailsDTO getUser(UUID id);
+
+    /**
+     * Retrieves a registered user by email address.
+     *
+     * @param email the email address, in any case
+     * @return the user's details
+     */
+    UserDetailsDTO getUserByEmail(String email);
+
+    /**
+     * Streams every registered user in id order, starting after {@code after}.
+     *
+     * @param after        the last id already exported, or {@code null} to start from the beginning
+     * @param userConsumer receives each user, in id order
+     */
+    void exportUsers(UUID after, Consumer<UserDetailsDTO> userConsumer);
+
     /**
      * Validates the provided email against defined criteria.
      *
@@ -1,26 +1,71 @@
 package com.nisum.service.impl;
 
 import com.nisum.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
+import com.nisum.dto.login.LoginRequestDTO;
+import com.nisum.dto.login.LoginResponseDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO.Status;
 import com.nisum.dto.registration.UserRequestDTO;
 import com.nisum.dto.registration.UserResponseDTO;
 import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.user.UserDetailsDTO;
 import com.nisum.entity.User;
 import com.nisum.entity.Phone;
 import com.nisum.exception.email.EmailAlreadyExistsException;
 import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.exception.login.InvalidCredentialsException;
+import com.nisum.exception.registration.RegistrationBusyException;
+import com.nisum.exception.user.UserNotFoundException;
+import com.nisum.outbox.OutboxPublisher;
 import com.nisum.repository.UserRepository;
+import com.nisum.utils.Bulkhead;
+import com.nisum.utils.EmailExistenceFilter;
+import com.nisum.utils.EmailValidator;
 import com.nisum.utils.MessagesHelper;
 import com.nisum.utils.JwtUtil;
+import com.nisum.utils.LastLoginRecorder;
+import com.nisum.utils.PasswordHasher;
+import com.nisum.utils.ReadWriteRoutingDataSource;
+import com.nisum.utils.ReadYourWrites;
+import com.nisum.utils.RegistrationStageTimer;
+import com.nisum.utils.RegistrationStageTimer.Stage;
+import com.nisum.utils.UserDetailsCache;
+import com.nisum.utils.UserShards;
 
 /**
  * Implementation of the UserService interface, responsible for user
@@ -33,6 +78,17 @@ import com.nisum.utils.JwtUtil;
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
+
+    private static final String EMAIL_UNIQUE_INDEX = "UX_USERS_EMAIL";
+
+    /**
+     * The order of {@code users.id} in the database, which compares UUIDs as unsigned bytes.
+     */
+    private static final Comparator<UserDetailsDTO> EXPORT_ORDER = Comparator
+            .comparing((UserDetailsDTO user) -> user.getId().getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(user -> user.getId().getLeastSignificantBits(), Long::compareUnsigned);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -42,42 +98,583 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private JwtUtil jwtUtil;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private UserShards userShards;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmailValidator emailValidator;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private RegistrationStageTimer stageTimer;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    @Qualifier("cpuBulkhead")
+    private Bulkhead cpuBulkhead;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+
+    @Value("${registration.batch.chunk-size:500}")
+    private int batchChunkSize;
 
-    @Value("${regex.email}")
-    private String emailRegex;
+    @Value("${users.export.clear-interval:1000}")
+    private int exportClearInterval;
 
     /**
      * Registers a new user with the provided details.
+     * <p>
+     * Blocks the calling thread until the password has been hashed and the
+     * user saved; request handlers should prefer {@link #registerUserAsync}.
+     * </p>
      *
      * @param userRequestDTO the DTO containing user registration details
      * @return UserResponseDTO containing the registered user's details
      */
     public UserResponseDTO registerUser(UserRequestDTO userRequestDTO) {
-        validateEmail(userRequestDTO.getEmail());
+        try {
+            return registerUserAsync(userRequestDTO).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Registers a new user, hashing the password on the dedicated hashing pool.
+     * <p>
+     * Email validation and the duplicate check run on the calling thread; the
+     * returned future completes once the password is hashed and the user saved.
+     * The duplicate check only saves the hashing cost of obvious duplicates and
+     * is skipped whenever the email filter rules the email out: uniqueness is
+     * enforced by the insert itself, see {@link #insertUser(User)}. The user is
+     * saved on the {@code applicationTaskExecutor}, so hashing threads never
+     * wait on the database. Each stage is timed by the {@code RegistrationStageTimer}.
+     * </p>
+     *
+     * @param userRequestDTO the DTO containing user registration details
+     * @return a future completed with the registered user's details
+     */
+    public CompletableFuture<UserResponseDTO> registerUserAsync(UserRequestDTO userRequestDTO) {
+        String email = stageTimer.record(Stage.VALIDATION, () -> normalizeValidEmail(userRequestDTO.getEmail()));
 
         // Check if email already exists
-        if (userRepository.findByEmail(userRequestDTO.getEmail()).isPresent()) {
-            throw new EmailAlreadyExistsException(messagesHelper.getMessage("email.already_registered"));
+        if (stageTimer.record(Stage.DUPLICATE_CHECK, () -> isEmailRegistered(email))) {
+            throw new EmailAlreadyExistsException();
+        }
+
+        Timer.Sample hashing = stageTimer.start();
+        return passwordHasher.encodeAsync(userRequestDTO.getPassword())
+                .whenComplete((encodedPassword, ex) -> stageTimer.stop(hashing, Stage.HASHING))
+                .thenApplyAsync(encodedPassword -> saveNewUser(userRequestDTO, email, encodedPassword),
+                        applicationTaskExecutor);
+    }
+
+    /**
+     * Builds the user entity with its metadata and token, then saves it.
+     *
+     * @param userRequestDTO  the DTO containing user registration details
+     * @param email           the normalized email address
+     * @param encodedPassword the already hashed password
+     * @return UserResponseDTO containing the saved user's details
+     */
+    private UserResponseDTO saveNewUser(UserRequestDTO userRequestDTO, String email, String encodedPassword) {
+        User user = buildNewUser(userRequestDTO, email, encodedPassword);
+
+        // Save user in database
+        User savedUser = stageTimer.record(Stage.INSERT, () -> insertUser(user));
+        readYourWrites.written(savedUser.getId(), savedUser.getEmail());
+        userDetailsCache.put(convertToUserDetailsDTO(savedUser));
+
+        // Convert saved entity to response DTO
+        return convertToUserResponseDTO(savedUser);
+    }
+
+    /**
+     * Authenticates a user by email and password and issues a new token.
+     * <p>
+     * The password is verified against the stored hash, whatever cost it was
+     * made with. If that hash lacks the algorithm prefix or its cost is lower
+     * than the current one, the password is hashed again with the current
+     * parameters in the background and stored, unless the hash changed in the
+     * meantime; the login itself does not wait for it. A user who registered
+     * within the read-your-writes window is looked up in the primary database.
+     * </p>
+     * <p>
+     * A password is hashed and compared even when the email is unknown, the
+     * user inactive or without password, so the response time does not tell
+     * which emails are registered.
+     * </p>
+     * <p>
+     * The login time is buffered by the {@code LastLoginRecorder} and written
+     * to {@code lastLogin} by its next periodic flush, not by this call.
+     * </p>
+     *
+     * @param loginRequestDTO the DTO containing the credentials
+     * @return LoginResponseDTO containing the user's identity and token
+     * @throws InvalidCredentialsException if no active user has this email and password
+     */
+    public LoginResponseDTO login(LoginRequestDTO loginRequestDTO) {
+        String email = emailValidator.normalize(loginRequestDTO.getEmail());
+        String rawPassword = loginRequestDTO.getPassword();
+        User user = email == null || rawPassword == null
+                ? null
+                : readYourWrites.read(email,
+                        () -> userShards.findByEmail(email, () -> userRepository.findByEmail(email))).orElse(null);
+        String storedPassword = user != null && user.isActive() ? user.getPassword() : null;
+        if (!passwordHasher.matches(rawPassword, storedPassword)) {
+            throw new InvalidCredentialsException();
+        }
+
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            rehashPassword(user.getId(), user.getPassword(), rawPassword);
+        }
+
+        // Microseconds, the precision of the last_login column
+        LocalDateTime loginAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        lastLoginRecorder.record(user.getId(), loginAt);
+
+        LoginResponseDTO loginResponseDTO = new LoginResponseDTO();
+        loginResponseDTO.setId(user.getId());
+        loginResponseDTO.setEmail(user.getEmail());
+        loginResponseDTO.setLastLogin(loginAt);
+        loginResponseDTO.setToken(issueToken(user.getEmail()));
+        return loginResponseDTO;
+    }
+
+    /**
+     * Hashes a verified password with the current parameters and replaces the
+     * stored hash with it. Failures are only logged: the old hash stays valid
+     * and the next login tries again.
+     *
+     * @param id          the identifier of the user
+     * @param currentHash the hash the password was verified against
+     * @param rawPassword the verified password
+     */
+    private void rehashPassword(UUID id, String currentHash, String rawPassword) {
+        try {
+            passwordHasher.encodeAsync(rawPassword)
+                    .thenAcceptAsync(newHash -> userShards.on(userShards.shardOf(id),
+                                    () -> userRepository.updatePassword(id, currentHash, newHash)),
+                            applicationTaskExecutor)
+                    .exceptionally(ex -> {
+                        log.warn("Could not rehash the password of user {}", id, ex);
+                        return null;
+                    });
+        } catch (RegistrationBusyException ex) {
+            log.debug("Hashing pool busy, password of user {} not rehashed", id);
+        }
+    }
+
+    /**
+     * Retrieves a user by identifier, from the cache when possible.
+     * <p>
+     * On a miss the user and its phones are loaded with a single query, from
+     * the primary database if the user registered within the read-your-writes
+     * window.
+     * </p>
+     *
+     * @param id the user identifier
+     * @return the user's details
+     * @throws UserNotFoundException if no user has this identifier
+     */
+    public UserDetailsDTO getUser(UUID id) {
+        UserDetailsDTO user = userDetailsCache.get(id, key -> readYourWrites.read(key, () -> userShards
+                .findById(key, () -> userRepository.findWithPhonesById(key))
+                .map(this::convertToUserDetailsDTO)
+                .orElse(null)));
+        if (user == null) {
+            throw new UserNotFoundException();
+        }
+        return user;
+    }
+
+    /**
+     * Retrieves a user by email address, from the cache when possible.
+     * <p>
+     * The email is normalized first, so lookups are case-insensitive. On a
+     * miss the user and its phones are loaded with a single query, from the
+     * primary database if the user registered within the read-your-writes
+     * window.
+     * </p>
+     *
+     * @param email the email address, in any case
+     * @return the user's details
+     * @throws InvalidEmailException if the address does not match {@code regex.email}
+     * @throws UserNotFoundException if no user has this email
+     */
+    public UserDetailsDTO getUserByEmail(String email) {
+        String normalized = normalizeValidEmail(email);
+        UserDetailsDTO user = userDetailsCache.getByEmail(normalized, () -> readYourWrites.read(normalized,
+                () -> userShards.findByEmail(normalized, () -> userRepository.findWithPhonesByEmail(normalized))
+                        .map(this::convertToUserDetailsDTO)
+                        .orElse(null)));
+        if (user == null) {
+            throw new UserNotFoundException();
+        }
+        return user;
+    }
+
+    /**
+     * Streams every registered user with its phones, in id order.
+     * <p>
+     * Users are read through a single forward-only cursor in a read-only
+     * transaction, fetching rows from the database in blocks, and the
+     * persistence context is cleared every {@code users.export.clear-interval}
+     * users, so memory use does not grow with the number of users. Because
+     * users come in id order, an interrupted export can be resumed by passing
+     * the last id received as {@code after}.
+     * </p>
+     * <p>
+     * When the store is sharded, every shard is read in parallel through its
+     * own cursor and the users are merged back into id order. A user being
+     * moved by the {@code ShardRebalancer} may be found on both its shards:
+     * the second row comes right after the first one and is skipped.
+     * </p>
+     *
+     * @param after        the last id already exported, or {@code null} to start from the beginning
+     * @param userConsumer receives each user, in id order
+     */
+    public void exportUsers(UUID after, Consumer<UserDetailsDTO> userConsumer) {
+        UUID[] lastId = {after};
+        Consumer<UserDetailsDTO> distinctConsumer = user -> {
+            if (!user.getId().equals(lastId[0])) {
+                lastId[0] = user.getId();
+                userConsumer.accept(user);
+            }
+        };
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        userShards.forEachOrdered(EXPORT_ORDER, (shard, shardConsumer) ->
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<User> users = after == null
+                            ? userRepository.streamAllWithPhones()
+                            : userRepository.streamWithPhonesAfter(after)) {
+                        int exported = 0;
+                        Iterator<User> iterator = users.iterator();
+                        while (iterator.hasNext()) {
+                            shardConsumer.accept(convertToUserDetailsDTO(iterator.next()));
+                            if (++exported % exportClearInterval == 0) {
+                                entityManager.clear();
+                            }
+                        }
+                    }
+                }), distinctConsumer);
+    }
+
+    /**
+     * Registers users read lazily from {@code requests}.
+     * <p>
+     * Items are processed in chunks of {@code registration.batch.chunk-size}:
+     * each chunk is validated in memory, checked for duplicates with a single
+     * {@code IN} query per shard, hashed in parallel and inserted in one
+     * transaction per shard using JDBC batching, together with their
+     * {@code UserRegistered} outbox events.
+     * The persistence context is cleared after every chunk, so memory use does
+     * not grow with the size of the batch.
+     * </p>
+     * <p>
+     * If reading the next request fails, the requests already read are
+     * registered and reported before the failure is rethrown.
+     * </p>
+     *
+     * @param requests       the registration requests, consumed lazily
+     * @param locale         the language of the error messages of failed items
+     * @param resultConsumer receives the outcome of each item, in input order
+     */
+    public void registerUsersBatch(Iterator<UserRequestDTO> requests, Locale locale,
+                                   Consumer<BatchRegistrationResultDTO> resultConsumer) {
+        List<UserRequestDTO> chunk = new ArrayList<>(batchChunkSize);
+        int firstIndex = 0;
+        while (true) {
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                chunk.add(requests.next());
+            } catch (RuntimeException ex) {
+                if (!chunk.isEmpty()) {
+                    registerChunk(chunk, firstIndex, locale, resultConsumer);
+                }
+                throw ex;
+            }
+            if (chunk.size() == batchChunkSize) {
+                registerChunk(chunk, firstIndex, locale, resultConsumer);
+                firstIndex += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            registerChunk(chunk, firstIndex, locale, resultConsumer);
+        }
+    }
+
+    /**
+     * Registers one chunk of a batch and reports its results.
+     *
+     * @param chunk          the requests of this chunk
+     * @param firstIndex     the batch position of the first request in the chunk
+     * @param locale         the language of the error messages of failed items
+     * @param resultConsumer receives the outcome of each item, in input order
+     */
+    private void registerChunk(List<UserRequestDTO> chunk, int firstIndex, Locale locale,
+                               Consumer<BatchRegistrationResultDTO> resultConsumer) {
+        BatchRegistrationResultDTO[] results = new BatchRegistrationResultDTO[chunk.size()];
+        String[] emails = new String[chunk.size()];
+
+        // Validate in memory and drop duplicates inside the chunk itself
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            UserRequestDTO request = chunk.get(i);
+            String email = emailValidator.normalize(request.getEmail());
+            if (email == null) {
+                results[i] = failure(firstIndex + i, request.getEmail(), Status.INVALID_EMAIL, "email.invalid", locale);
+                continue;
+            }
+            emails[i] = email;
+            if (request.getPassword() == null || request.getPassword().isBlank()) {
+                results[i] = failure(firstIndex + i, email, Status.INVALID_REQUEST,
+                        "registration.invalid_request", locale);
+            } else if (candidates.putIfAbsent(email, i) != null) {
+                results[i] = failure(firstIndex + i, email, Status.EMAIL_ALREADY_REGISTERED,
+                        "email.already_registered", locale);
+            }
+        }
+
+        // One round trip per shard for the duplicate check of the emails the filter cannot rule out
+        List<String> suspects = candidates.keySet().stream()
+                .filter(emailExistenceFilter::mightContain)
+                .toList();
+        Set<String> existing = suspects.isEmpty()
+                ? Collections.emptySet()
+                : findExistingEmails(suspects);
+        for (String suspect : suspects) {
+            if (!existing.contains(suspect)) {
+                emailExistenceFilter.recordFalsePositive();
+            }
+        }
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            int i = candidate.getValue();
+            if (existing.contains(candidate.getKey())) {
+                results[i] = failure(firstIndex + i, candidate.getKey(),
+                        Status.EMAIL_ALREADY_REGISTERED, "email.already_registered", locale);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<String> encodedPasswords = passwordHasher.encodeAll(
+                    accepted.stream().map(i -> chunk.get(i).getPassword()).toList());
+            List<User> users = new ArrayList<>(accepted.size());
+            for (int a = 0; a < accepted.size(); a++) {
+                int i = accepted.get(a);
+                users.add(buildNewUser(chunk.get(i), emails[i], encodedPasswords.get(a)));
+            }
+
+            Map<Integer, List<Integer>> byShard = new TreeMap<>();
+            for (int a = 0; a < users.size(); a++) {
+                byShard.computeIfAbsent(userShards.shardOf(users.get(a).getEmail()), shard -> new ArrayList<>()).add(a);
+            }
+            for (Map.Entry<Integer, List<Integer>> shardUsers : byShard.entrySet()) {
+                List<User> batch = shardUsers.getValue().stream().map(users::get).toList();
+                try {
+                    userShards.on(shardUsers.getKey(), () -> transactionTemplate.execute(status -> {
+                        userRepository.saveAll(batch);
+                        outboxPublisher.userRegistered(batch);
+                        entityManager.flush();
+                        entityManager.clear();
+                        return null;
+                    }));
+                } catch (DataIntegrityViolationException ex) {
+                    if (!isEmailUniqueViolation(ex)) {
+                        throw ex;
+                    }
+                    // A concurrent registration took one of the emails: retry this shard one user at a time
+                    for (int a : shardUsers.getValue()) {
+                        int i = accepted.get(a);
+                        try {
+                            users.set(a, insertUser(buildNewUser(chunk.get(i), emails[i], encodedPasswords.get(a))));
+                        } catch (EmailAlreadyExistsException duplicate) {
+                            users.set(a, null);
+                        }
+                    }
+                }
+            }
+
+            for (int a = 0; a < accepted.size(); a++) {
+                int i = accepted.get(a);
+                User user = users.get(a);
+                if (user == null) {
+                    results[i] = failure(firstIndex + i, emails[i],
+                            Status.EMAIL_ALREADY_REGISTERED, "email.already_registered", locale);
+                } else {
+                    results[i] = new BatchRegistrationResultDTO(firstIndex + i, user.getEmail(), Status.CREATED);
+                    results[i].setId(user.getId());
+                    readYourWrites.written(user.getId(), user.getEmail());
+                }
+            }
+        }
+
+        for (BatchRegistrationResultDTO result : results) {
+            resultConsumer.accept(result);
+        }
+    }
+
+    /**
+     * Returns which of the given emails are already registered, with one
+     * {@code IN} query on the primary of each shard holding any of them, run
+     * on all those shards in parallel. The primary is read because a lagging
+     * replica would only let duplicates through to the insert.
+     *
+     * @param emails the normalized email addresses to check
+     * @return the subset of {@code emails} that already belong to a user
+     */
+    private Set<String> findExistingEmails(List<String> emails) {
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        for (String email : emails) {
+            for (int shard : userShards.shardsOf(email)) {
+                byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(email);
+            }
         }
+        Set<String> existing = new HashSet<>();
+        userShards.fanOut(shard -> {
+            List<String> shardEmails = byShard.get(shard);
+            return shardEmails == null
+                    ? Set.<String>of()
+                    : ReadWriteRoutingDataSource.onPrimary(() -> userRepository.findExistingEmails(shardEmails));
+        }).forEach(existing::addAll);
+        return existing;
+    }
 
+    /**
+     * Inserts a new user in its own short transaction, on the shard of its email.
+     * <p>
+     * No lookup precedes the insert: concurrent registrations of the same email
+     * are resolved by the unique email index, whose violation is reported as
+     * an {@code EmailAlreadyExistsException}. The {@code UserRegistered}
+     * outbox event is written in the same transaction.
+     * </p>
+     *
+     * @param user the new user to insert
+     * @return the saved user
+     * @throws EmailAlreadyExistsException if the email is already registered
+     */
+    private User insertUser(User user) {
+        try {
+            return userShards.on(userShards.shardOf(user.getEmail()), () -> transactionTemplate.execute(status -> {
+                User savedUser = userRepository.saveAndFlush(user);
+                outboxPublisher.userRegistered(List.of(savedUser));
+                return savedUser;
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            if (isEmailUniqueViolation(ex)) {
+                throw new EmailAlreadyExistsException();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Tells whether a data integrity violation was caused by the unique email index.
+     *
+     * @param ex the exception raised by the insert
+     * @return {@code true} if the email was already taken
+     */
+    private static boolean isEmailUniqueViolation(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.toUpperCase(Locale.ROOT).contains(EMAIL_UNIQUE_INDEX);
+    }
+
+    /**
+     * Checks whether an email is already registered, skipping the database
+     * query when the email existence filter rules the email out. The query
+     * reads the primary of the email's shard, which a registration is about
+     * to write.
+     *
+     * @param email the email address to check
+     * @return {@code true} if a user with this email exists
+     */
+    private boolean isEmailRegistered(String email) {
+        if (!emailExistenceFilter.mightContain(email)) {
+            return false;
+        }
+        boolean registered = userShards.findByEmail(email,
+                () -> ReadWriteRoutingDataSource.onPrimary(() -> userRepository.findByEmail(email))).isPresent();
+        if (!registered) {
+            emailExistenceFilter.recordFalsePositive();
+        }
+        return registered;
+    }
+
+    private BatchRegistrationResultDTO failure(int index, String email, Status status, String messageKey,
+                                               Locale locale) {
+        BatchRegistrationResultDTO result = new BatchRegistrationResultDTO(index, email, status);
+        result.setError(messagesHelper.getMessage(messageKey, locale));
+        return result;
+    }
+
+    /**
+     * Builds a new, unsaved user entity with its metadata and token.
+     *
+     * @param userRequestDTO  the DTO containing user registration details
+     * @param email           the normalized email address, which replaces the submitted one
+     * @param encodedPassword the already hashed password
+     * @return the user entity ready to be saved
+     */
+    private User buildNewUser(UserRequestDTO userRequestDTO, String email, String encodedPassword) {
         // Convert DTO to Entity
         User user = convertToUserEntity(userRequestDTO);
+        user.setEmail(email);
 
         // Set timestamps and other fields
         LocalDateTime dateTime = LocalDateTime.now();
-        user.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
+        user.setPassword(encodedPassword);
         user.setCreated(dateTime);
         user.setModified(dateTime);
         user.setLastLogin(dateTime);
         user.setActive(true);
-        user.setToken(jwtUtil.generateToken(userRequestDTO.getEmail()));
-
-        // Save user in database
-        User savedUser = userRepository.save(user);
+        user.setToken(stageTimer.record(Stage.TOKEN, () -> issueToken(user.getEmail())));
+        return user;
+    }
 
-        // Convert saved entity to response DTO
-        return convertToUserResponseDTO(savedUser);
+    /**
+     * Signs a new token for the given email while holding a {@code cpuBulkhead} permit.
+     *
+     * @param email the subject of the token
+     * @return the signed token
+     * @throws RegistrationBusyException if no CPU permit is available in time
+     */
+    private String issueToken(String email) {
+        return cpuBulkhead.call(() -> jwtUtil.generateToken(email),
+                RegistrationBusyException::new);
     }
 
     /**
@@ -86,10 +683,22 @@ public class UserServiceImpl implements UserService {
      * @param email the email address to validate
      */
     public void validateEmail(String email) {
-        Pattern pattern = Pattern.compile(emailRegex);
-        if (!pattern.matcher(email).matches()) {
-            throw new InvalidEmailException(messagesHelper.getMessage("email.invalid"));
+        normalizeValidEmail(email);
+    }
+
+    /**
+     * Validates an email address and returns it in its stored form.
+     *
+     * @param email the email address as submitted
+     * @return the trimmed, lower-case email address
+     * @throws InvalidEmailException if the address does not match {@code regex.email}
+     */
+    private String normalizeValidEmail(String email) {
+        String normalized = emailValidator.normalize(email);
+        if (normalized == null) {
+            throw new InvalidEmailException();
         }
+        return normalized;
     }
 
     /**
@@ -104,7 +713,7 @@ public class UserServiceImpl implements UserService {
         user.setEmail(userRequestDTO.getEmail());
 
         // Convert phone DTOs to phone entities
-        List<Phone> phones = userRequestDTO.getPhones()
+        List<Phone> phones = userRequestDTO.getPhones() == null ? new ArrayList<>() : userRequestDTO.getPhones()
                 .stream()
                 .map(this::convertToPhoneEntity)
                 .collect(Collectors.toList());
@@ -155,6 +764,28 @@ public class UserServiceImpl implements UserService {
         return userResponseDTO;
     }
 
+    /**
+     * Converts User entity to UserDetailsDTO.
+     *
+     * @param user the User entity to convert, with its phones loaded
+     * @return the converted UserDetailsDTO
+     */
+    protected UserDetailsDTO convertToUserDetailsDTO(User user) {
+        UserDetailsDTO userDetailsDTO = new UserDetailsDTO();
+        userDetailsDTO.setId(user.getId());
+        userDetailsDTO.setName(user.getName());
+        userDetailsDTO.setEmail(user.getEmail());
+        userDetailsDTO.setCreated(user.getCreated());
+        userDetailsDTO.setModified(user.getModified());
+        userDetailsDTO.setLastLogin(user.getLastLogin());
+        userDetailsDTO.setActive(user.isActive());
+        userDetailsDTO.setPhones(user.getPhones()
+                .stream()
+                .map(this::convertToPhoneDTO)
+                .collect(Collectors.toList()));
+        return userDetailsDTO;
+    }
+
     /**
      * Converts Phone entity to PhoneDTO.
      *
@@ -0,0 +1,61 @@
+package com.nisum.utils;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost factor that fits a per-hash latency budget on the
+ * current host.
+ * <p>
+ * The hash time is measured at the minimum cost and doubled for every
+ * additional cost step, as BCrypt's work factor is a power of two. The
+ * chosen cost is then measured once more and lowered by one step if it
+ * still exceeds the budget. The result is never below {@code minCost}, even
+ * if the host cannot meet the budget at that cost.
+ * </p>
+ *
+ * @author avasquez
+ */
+public final class BcryptCostCalibrator {
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BcryptCostCalibrator() {
+    }
+
+    /**
+     * Measures BCrypt on this host and returns the highest cost within the budget.
+     *
+     * @param budget  the target time of a single hash
+     * @param minCost the lowest acceptable cost
+     * @param maxCost the highest cost to consider
+     * @return the calibrated cost, between {@code minCost} and {@code maxCost}
+     */
+    public static int calibrate(Duration budget, int minCost, int maxCost) {
+        long budgetNanos = budget.toNanos();
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode(SAMPLE_PASSWORD); // warm-up
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            estimate = Math.min(estimate, time(probe));
+        }
+
+        int cost = minCost;
+        while (cost < maxCost && estimate * 2 <= budgetNanos) {
+            cost++;
+            estimate *= 2;
+        }
+        if (cost > minCost && time(new BCryptPasswordEncoder(cost)) > budgetNanos) {
+            cost--;
+        }
+        return cost;
+    }
+
+    private static long time(BCryptPasswordEncoder encoder) {
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,128 @@
+package com.nisum.utils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore bulkhead capping how many threads run a stage at the same time.
+ * <p>
+ * With virtual threads the number of concurrent requests is no longer bounded
+ * by a thread pool, so stages whose capacity is fixed (CPU cores, pooled
+ * connections) are guarded explicitly. Waiting threads park on a fair
+ * {@link Semaphore}, which unmounts virtual threads from their carrier, and
+ * give up after {@code maxWait}.
+ * </p>
+ * <p>
+ * Once bound to a registry, the time spent waiting for a permit is published
+ * as the {@code bulkhead.wait} timer and the free permits as the
+ * {@code bulkhead.available} gauge, both tagged with the bulkhead name.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class Bulkhead implements MeterBinder {
+
+    private final String name;
+    private final int permits;
+    private final long maxWaitNanos;
+    private final Semaphore semaphore;
+    private volatile Timer waitTimer;
+
+    /**
+     * Creates a bulkhead.
+     *
+     * @param name    the name used to tag its metrics
+     * @param permits the maximum number of concurrent holders
+     * @param maxWait how long a caller waits for a permit before being rejected
+     */
+    public Bulkhead(String name, int permits, Duration maxWait) {
+        this.name = name;
+        this.permits = permits;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    /**
+     * Waits for a permit. A successful call must be paired with {@link #release()}.
+     *
+     * @return {@code true} if a permit was acquired, {@code false} if the wait timed out or was interrupted
+     */
+    public boolean tryAcquire() {
+        long start = System.nanoTime();
+        boolean acquired;
+        if (semaphore.tryAcquire()) {
+            acquired = true;
+        } else {
+            try {
+                acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        }
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return acquired;
+    }
+
+    /**
+     * Returns a permit acquired with {@link #tryAcquire()}.
+     */
+    public void release() {
+        semaphore.release();
+    }
+
+    /**
+     * Runs a task while holding a permit.
+     *
+     * @param task      the work to run
+     * @param rejection creates the exception thrown when no permit is available in time
+     * @param <T>       the result type
+     * @return the result of {@code task}
+     */
+    public <T> T call(Supplier<T> task, Supplier<? extends RuntimeException> rejection) {
+        if (!tryAcquire()) {
+            throw rejection.get();
+        }
+        try {
+            return task.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return the maximum number of concurrent holders
+     */
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * @return the number of permits currently free
+     */
+    public int getAvailablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bulkhead.available", this, Bulkhead::getAvailablePermits)
+                .tag("name", name)
+                .description("Free permits of the bulkhead")
+                .register(registry);
+        waitTimer = Timer.builder("bulkhead.wait")
+                .tag("name", name)
+                .description("Time spent waiting for a bulkhead permit")
+                .register(registry);
+    }
+}
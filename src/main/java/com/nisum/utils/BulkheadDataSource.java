@@ -0,0 +1,124 @@
+package com.nisum.utils;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code DataSource} that holds a {@link Bulkhead} permit for as long as a
+ * connection is checked out.
+ * <p>
+ * With as many permits as pooled connections, callers queue on the bulkhead
+ * instead of inside the pool, and no more threads than connections ever run
+ * JDBC code at once, so virtual threads pinned in the driver's
+ * {@code synchronized} blocks cannot take over every carrier thread.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Bulkhead bulkhead;
+
+    /**
+     * Wraps a data source.
+     *
+     * @param targetDataSource the pooled data source
+     * @param bulkhead         the bulkhead bounding concurrent connections
+     */
+    public BulkheadDataSource(DataSource targetDataSource, Bulkhead bulkhead) {
+        super(targetDataSource);
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            bulkhead.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            bulkhead.release();
+            throw ex;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (!bulkhead.tryAcquire()) {
+            throw new SQLTransientConnectionException("Timed out waiting for a database connection permit");
+        }
+    }
+
+    /**
+     * Proxies a connection so that closing it, once, gives the permit back.
+     * Statements and metadata are proxied too, so that their
+     * {@code getConnection()} returns this proxy: callers such as
+     * {@code JdbcTemplate.queryForStream} close the connection they get from
+     * the statement.
+     */
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        Connection[] self = new Connection[1];
+        self[0] = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                bulkhead.release();
+                            }
+                        }
+                        return null;
+                    }
+                    Object result = invoke(connection, method, args);
+                    Class<?> type = method.getReturnType();
+                    if (result != null && (Statement.class.isAssignableFrom(type) || type == DatabaseMetaData.class)) {
+                        return owningConnection(result, type, self[0]);
+                    }
+                    return result;
+                });
+        return self[0];
+    }
+
+    /**
+     * Proxies a statement or metadata object so that it reports {@code owner} as its connection.
+     */
+    private static Object owningConnection(Object target, Class<?> type, Connection owner) {
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> method.getName().equals("getConnection") && method.getParameterCount() == 0
+                        ? owner
+                        : invoke(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
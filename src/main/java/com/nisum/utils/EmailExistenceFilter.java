@@ -0,0 +1,225 @@
+package com.nisum.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Probabilistic negative cache of registered email addresses.
+ * <p>
+ * Holds a {@link ScalableBloomFilter} over normalized emails, warmed from the
+ * {@code users} table once the application is ready and updated whenever a
+ * user is persisted. If the filter reports an email as absent it was never
+ * saved through this instance, so the duplicate check can skip the database.
+ * Until the first warm-up completes every email is reported as possibly
+ * present, keeping the database as the source of truth.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class EmailExistenceFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailExistenceFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserShards userShards;
+
+    private final Counter definitelyAbsent;
+    private final Counter mightBePresent;
+    private final Counter falsePositives;
+
+    @Value("${email.filter.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${email.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${email.filter.max-slices:4}")
+    private int maxSlices;
+
+    private volatile ScalableBloomFilter filter;
+    private volatile ScalableBloomFilter rebuilding;
+    private volatile boolean ready;
+
+    private final AtomicBoolean resizeScheduled = new AtomicBoolean();
+
+    /**
+     * Creates the filter and registers its counters and gauges.
+     *
+     * @param dataSource    the datasource holding the {@code users} table
+     * @param userShards    the shards the {@code users} table is spread over
+     * @param meterRegistry the registry where the filter metrics are published
+     */
+    public EmailExistenceFilter(DataSource dataSource, UserShards userShards, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.userShards = userShards;
+        this.definitelyAbsent = Counter.builder("email.filter.lookups")
+                .tag("result", "definitely_absent")
+                .description("Duplicate checks answered by the email filter without a query")
+                .register(meterRegistry);
+        this.mightBePresent = Counter.builder("email.filter.lookups")
+                .tag("result", "might_be_present")
+                .description("Duplicate checks the email filter passed on to the database")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("email.filter.false_positives")
+                .description("Emails the filter reported as present that the database did not have")
+                .register(meterRegistry);
+        Gauge.builder("email.filter.size", this, f -> f.filter == null ? 0 : f.filter.size())
+                .description("Approximate number of emails in the filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Warms the filter from the database once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the filter from the {@code users} table, sized for the current
+     * row count. Emails added while the rebuild runs go to both the old and
+     * the new filter, so lookups stay correct during the swap; see
+     * {@link #add(String)} for the emails whose rows the scan cannot see yet.
+     * With a sharded store, every shard is counted and read in parallel.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long rows = userShards.fanOut(shard -> jdbcTemplate.queryForObject("select count(*) from users", Long.class))
+                .stream()
+                .mapToLong(count -> count == null ? 0 : count)
+                .sum();
+        long capacity = Math.max(expectedInsertions, rows * 2);
+        ScalableBloomFilter next = new ScalableBloomFilter(capacity, falsePositiveRate);
+        rebuilding = next;
+        try {
+            userShards.fanOut(shard -> {
+                try (Stream<String> emails = jdbcTemplate.queryForStream(
+                        "select email from users", (rs, rowNum) -> rs.getString(1))) {
+                    emails.forEach(email -> {
+                        if (email != null) {
+                            next.put(normalize(email));
+                        }
+                    });
+                }
+                return null;
+            });
+            filter = next;
+            ready = true;
+        } finally {
+            rebuilding = null;
+        }
+        log.info("Email filter rebuilt with {} emails in {} ms", next.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Records a newly saved email. Triggers a rebuild once the filter has
+     * grown past {@code email.filter.max-slices} slices.
+     * <p>
+     * Inside a transaction the email is added again once it commits: a
+     * rebuild started in between reads only committed rows, so it would
+     * otherwise replace the filter with one missing this email.
+     * </p>
+     *
+     * @param email the email that was saved
+     */
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String normalized = normalize(email);
+        put(normalized);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(normalized);
+                }
+            });
+        }
+        ScalableBloomFilter current = filter;
+        if (current != null && current.sliceCount() > maxSlices && resizeScheduled.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("email-filter-resize").start(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    resizeScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Checks whether an email may already be registered.
+     *
+     * @param email the email to look up
+     * @return {@code false} only if the email is definitely not registered
+     */
+    public boolean mightContain(String email) {
+        ScalableBloomFilter current = filter;
+        if (!ready || current == null || email == null) {
+            return true;
+        }
+        if (current.mightContain(normalize(email))) {
+            mightBePresent.increment();
+            return true;
+        }
+        definitelyAbsent.increment();
+        return false;
+    }
+
+    /**
+     * Records that an email reported as possibly present was not found in
+     * the database.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * @return the underlying filter, or {@code null} before the first warm-up
+     */
+    public ScalableBloomFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Adds an email to the current filter and to the one being rebuilt, then
+     * to the current one again if a rebuild swapped them in the meantime.
+     */
+    private void put(String normalized) {
+        ScalableBloomFilter current = filter;
+        if (current != null) {
+            current.put(normalized);
+        }
+        ScalableBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(normalized);
+        }
+        ScalableBloomFilter swapped = filter;
+        if (swapped != null && swapped != current) {
+            swapped.put(normalized);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,139 @@
+package com.nisum.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Validates and normalizes email addresses according to {@code regex.email}.
+ * <p>
+ * When {@code regex.email} is the stock expression
+ * {@value #DEFAULT_EMAIL_REGEX}, addresses are checked by a hand-written
+ * scanner that accepts exactly the same language in a single left-to-right
+ * pass: it never backtracks, so its cost is linear in the input length, and
+ * it allocates nothing for addresses that are already normalized. Any other
+ * expression is compiled once at startup and matched with {@link Pattern}.
+ * </p>
+ * <p>
+ * Normalization trims surrounding whitespace and lower-cases the address,
+ * which is the form emails are stored in.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class EmailValidator {
+
+    /**
+     * The expression shipped in {@code application.yml}.
+     */
+    public static final String DEFAULT_EMAIL_REGEX = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$";
+
+    private static final int MIN_TLD_LENGTH = 2;
+    private static final int MAX_TLD_LENGTH = 6;
+
+    private final Pattern pattern;
+
+    /**
+     * Creates the validator for the configured expression.
+     *
+     * @param emailRegex the {@code regex.email} expression
+     */
+    public EmailValidator(@Value("${regex.email}") String emailRegex) {
+        this.pattern = DEFAULT_EMAIL_REGEX.equals(emailRegex) ? null : Pattern.compile(emailRegex);
+    }
+
+    /**
+     * Validates an email address and returns it normalized.
+     *
+     * @param email the email address as submitted
+     * @return the trimmed, lower-case address, or {@code null} if it is not valid
+     */
+    public String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        if (pattern != null) {
+            String normalized = email.trim().toLowerCase(Locale.ROOT);
+            return pattern.matcher(normalized).matches() ? normalized : null;
+        }
+        return scan(email);
+    }
+
+    /**
+     * Tells whether an email address is valid.
+     *
+     * @param email the email address as submitted
+     * @return {@code true} if the address is valid
+     */
+    public boolean isValid(String email) {
+        return normalize(email) != null;
+    }
+
+    /**
+     * Single-pass equivalent of {@link #DEFAULT_EMAIL_REGEX} applied to the
+     * trimmed address. Because the domain class includes the dot and the
+     * top-level domain class does not, the expression matches exactly when
+     * there is one {@code @} preceded by at least one local-part character,
+     * every domain character is a letter, digit, dot or hyphen, and the text
+     * after the last dot of the domain is 2 to 6 letters with at least one
+     * character between the {@code @} and that dot.
+     */
+    private static String scan(String email) {
+        int start = 0;
+        int end = email.length();
+        while (start < end && email.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && email.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int at = -1;
+        int lastDot = -1;
+        boolean tldLettersOnly = false;
+        boolean hasUpperCase = false;
+        for (int i = start; i < end; i++) {
+            char c = email.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            hasUpperCase |= c >= 'A' && c <= 'Z';
+            if (c == '@') {
+                if (at >= 0 || i == start) {
+                    return null;
+                }
+                at = i;
+            } else if (at < 0) {
+                if (!letter && !(c >= '0' && c <= '9')
+                        && c != '.' && c != '_' && c != '%' && c != '+' && c != '-') {
+                    return null;
+                }
+            } else if (c == '.') {
+                lastDot = i;
+                tldLettersOnly = true;
+            } else if (letter) {
+                // still a candidate top-level domain
+            } else if ((c >= '0' && c <= '9') || c == '-') {
+                tldLettersOnly = false;
+            } else {
+                return null;
+            }
+        }
+
+        int tldLength = end - lastDot - 1;
+        if (at < 0 || lastDot <= at + 1 || !tldLettersOnly
+                || tldLength < MIN_TLD_LENGTH || tldLength > MAX_TLD_LENGTH) {
+            return null;
+        }
+        if (start == 0 && end == email.length() && !hasUpperCase) {
+            return email;
+        }
+        char[] normalized = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = email.charAt(i);
+            normalized[i - start] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return new String(normalized);
+    }
+}
@@ -0,0 +1,60 @@
+package com.nisum.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-serialized JSON bodies of the error responses, such as
+ * {@code {"error":"Formato de correo inválido"}}.
+ * <p>
+ * A body is built the first time a message key is answered in a language and
+ * then reused as is, so rejecting a request costs no message lookup, no map
+ * and no JSON serialization. The caller resolves the language from the
+ * request's {@code Accept-Language} header, which keeps this class free of
+ * any web stack so the servlet and reactive APIs share it; since the language
+ * is always one of the {@link MessagesHelper#SUPPORTED_LOCALES}, there are at
+ * most as many bodies as keys times supported languages.
+ * </p>
+ * <p>
+ * The returned arrays are shared: callers write them out and never modify them.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class ErrorResponses {
+
+    @Autowired
+    private MessagesHelper messagesHelper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Locale, Map<String, byte[]>> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the error body of a message in the given language.
+     *
+     * @param messageKey the key of the message in {@code messages.properties}
+     * @param locale     one of the {@link MessagesHelper#SUPPORTED_LOCALES}
+     * @return the JSON body, not to be modified
+     */
+    public byte[] body(String messageKey, Locale locale) {
+        return bodies.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(messageKey, key -> serialize(messagesHelper.getMessage(key, locale)));
+    }
+
+    private byte[] serialize(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(Map.of("error", message));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize the error message " + message, ex);
+        }
+    }
+}
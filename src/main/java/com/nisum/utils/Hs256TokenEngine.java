@@ -0,0 +1,309 @@
+package com.nisum.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Allocation-light generator and verifier of HS256-signed JWTs.
+ * <p>
+ * Produces exactly the bytes jjwt 0.11 emits for
+ * {@code Jwts.builder().setSubject(s).setIssuedAt(i).setExpiration(e).signWith(HS256, secret)}:
+ * the constant {@code {"alg":"HS256"}} header is encoded once, the secret is
+ * Base64-decoded into a cached {@code SecretKeySpec} (jjwt treats a string
+ * secret as Base64), and the {@code Mac} and byte buffers are borrowed from a
+ * small pool. Claims are written straight into the buffer as JSON and
+ * Base64URL-encoded in place, so the only allocation per token is the
+ * resulting {@code String}.
+ * </p>
+ * <p>
+ * The pool holds one set of buffers per available processor, as signing
+ * runs under the {@code cpuBulkhead}, and is not tied to threads: a
+ * virtual thread, which lives for a single request, borrows buffers that
+ * earlier requests warmed up. When every set is in use a new one is made,
+ * with a {@code Mac} cloned from an initialized prototype, and dropped
+ * after use if the pool is full.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class Hs256TokenEngine {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte[] ENCODED_HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encode("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII));
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private final Mac prototype;
+    private final BlockingQueue<Buffers> pool;
+
+    /**
+     * Creates an engine signing with the given secret.
+     *
+     * @param base64Secret the signing secret, Base64-encoded as jjwt expects it
+     */
+    public Hs256TokenEngine(String base64Secret) {
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(base64Secret), ALGORITHM);
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(key);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+        this.pool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generates a signed token with {@code sub}, {@code iat} and {@code exp} claims.
+     *
+     * @param subject          the token subject
+     * @param issuedAtMillis   issue time, in epoch milliseconds
+     * @param expirationMillis expiration time, in epoch milliseconds
+     * @return the compact serialized token
+     */
+    public String generate(String subject, long issuedAtMillis, long expirationMillis) {
+        Buffers b = borrow();
+        try {
+            return generate(b, subject, issuedAtMillis, expirationMillis);
+        } finally {
+            pool.offer(b);
+        }
+    }
+
+    private String generate(Buffers b, String subject, long issuedAtMillis, long expirationMillis) {
+
+        // Claims JSON, in the order jjwt writes them
+        b.json = 0;
+        b.appendJson("{\"sub\":\"");
+        b.appendJsonString(subject);
+        b.appendJson("\",\"iat\":");
+        b.appendJsonLong(issuedAtMillis / 1000);
+        b.appendJson(",\"exp\":");
+        b.appendJsonLong(expirationMillis / 1000);
+        b.appendJson("}");
+
+        // header.payload
+        b.token = 0;
+        b.ensureToken(ENCODED_HEADER.length + 1 + (b.json * 4 + 2) / 3 + 1 + (SIGNATURE_LENGTH * 4 + 2) / 3);
+        System.arraycopy(ENCODED_HEADER, 0, b.tokenBytes, 0, ENCODED_HEADER.length);
+        b.token = ENCODED_HEADER.length;
+        b.tokenBytes[b.token++] = '.';
+        b.token = encodeBase64Url(b.jsonBytes, b.json, b.tokenBytes, b.token);
+
+        // .signature
+        try {
+            b.mac.update(b.tokenBytes, 0, b.token);
+            b.mac.doFinal(b.signature, 0);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to sign token", ex);
+        }
+        b.tokenBytes[b.token++] = '.';
+        b.token = encodeBase64Url(b.signature, SIGNATURE_LENGTH, b.tokenBytes, b.token);
+
+        return new String(b.tokenBytes, 0, b.token, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Verifies the signature of a token produced by this engine (or by jjwt
+     * with the same secret) and returns its decoded claims.
+     * <p>
+     * Only the exact {@code {"alg":"HS256"}} header is accepted, so tokens
+     * claiming another algorithm are rejected without being parsed. The
+     * signature is compared in constant time.
+     * </p>
+     *
+     * @param token the compact serialized token
+     * @return the UTF-8 claims JSON, or {@code null} if the token is malformed or forged
+     */
+    public byte[] verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (firstDot != ENCODED_HEADER.length || secondDot < 0
+                || token.length() - secondDot - 1 != (SIGNATURE_LENGTH * 4 + 2) / 3) {
+            return null;
+        }
+        for (int i = 0; i < firstDot; i++) {
+            if (token.charAt(i) != ENCODED_HEADER[i]) {
+                return null;
+            }
+        }
+
+        Buffers b = borrow();
+        try {
+            return verify(b, token, firstDot, secondDot);
+        } finally {
+            pool.offer(b);
+        }
+    }
+
+    private byte[] verify(Buffers b, String token, int firstDot, int secondDot) {
+        b.ensureToken(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= 0x80) {
+                return null;
+            }
+            b.tokenBytes[i] = (byte) c;
+        }
+        try {
+            b.mac.update(b.tokenBytes, 0, secondDot);
+            b.mac.doFinal(b.signature, 0);
+            byte[] provided = Base64.getUrlDecoder().decode(token.substring(secondDot + 1));
+            if (!MessageDigest.isEqual(b.signature, provided)) {
+                return null;
+            }
+            return Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to sign token", ex);
+        }
+    }
+
+    /**
+     * Takes a free set of buffers from the pool, or makes a new one.
+     */
+    private Buffers borrow() {
+        Buffers b = pool.poll();
+        if (b != null) {
+            return b;
+        }
+        try {
+            return new Buffers((Mac) prototype.clone());
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException("HmacSHA256 cannot be cloned", ex);
+        }
+    }
+
+    private static int encodeBase64Url(byte[] src, int length, byte[] dst, int offset) {
+        int i = 0;
+        for (; i + 3 <= length; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[offset++] = BASE64_URL[bits >>> 18];
+            dst[offset++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            dst[offset++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            dst[offset++] = BASE64_URL[bits & 0x3F];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xFF) << 16;
+            dst[offset++] = BASE64_URL[bits >>> 18];
+            dst[offset++] = BASE64_URL[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+            dst[offset++] = BASE64_URL[bits >>> 18];
+            dst[offset++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            dst[offset++] = BASE64_URL[(bits >>> 6) & 0x3F];
+        }
+        return offset;
+    }
+
+    /**
+     * MAC and scratch buffers, used by one call at a time.
+     */
+    private static final class Buffers {
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private byte[] jsonBytes = new byte[256];
+        private byte[] tokenBytes = new byte[512];
+        private int json;
+        private int token;
+
+        private Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        private void ensureJson(int extra) {
+            if (json + extra > jsonBytes.length) {
+                jsonBytes = Arrays.copyOf(jsonBytes, Math.max(jsonBytes.length * 2, json + extra));
+            }
+        }
+
+        private void ensureToken(int size) {
+            if (size > tokenBytes.length) {
+                tokenBytes = new byte[Math.max(tokenBytes.length * 2, size)];
+            }
+        }
+
+        private void appendJson(String ascii) {
+            ensureJson(ascii.length());
+            for (int i = 0; i < ascii.length(); i++) {
+                jsonBytes[json++] = (byte) ascii.charAt(i);
+            }
+        }
+
+        private void appendJsonLong(long value) {
+            ensureJson(20);
+            if (value < 0) {
+                jsonBytes[json++] = '-';
+                value = -value;
+            }
+            int start = json;
+            do {
+                jsonBytes[json++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            for (int i = start, j = json - 1; i < j; i++, j--) {
+                byte tmp = jsonBytes[i];
+                jsonBytes[i] = jsonBytes[j];
+                jsonBytes[j] = tmp;
+            }
+        }
+
+        /**
+         * Writes a string as UTF-8 with the escaping jjwt's Jackson serializer applies.
+         */
+        private void appendJsonString(String value) {
+            ensureJson(value.length() * 6);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    jsonBytes[json++] = '\\';
+                    jsonBytes[json++] = (byte) c;
+                } else if (c < 0x20) {
+                    jsonBytes[json++] = '\\';
+                    switch (c) {
+                        case '\b' -> jsonBytes[json++] = 'b';
+                        case '\t' -> jsonBytes[json++] = 't';
+                        case '\n' -> jsonBytes[json++] = 'n';
+                        case '\f' -> jsonBytes[json++] = 'f';
+                        case '\r' -> jsonBytes[json++] = 'r';
+                        default -> {
+                            jsonBytes[json++] = 'u';
+                            jsonBytes[json++] = '0';
+                            jsonBytes[json++] = '0';
+                            jsonBytes[json++] = HEX[c >> 4];
+                            jsonBytes[json++] = HEX[c & 0xF];
+                        }
+                    }
+                } else if (c < 0x80) {
+                    jsonBytes[json++] = (byte) c;
+                } else if (c < 0x800) {
+                    jsonBytes[json++] = (byte) (0xC0 | (c >> 6));
+                    jsonBytes[json++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // jjwt's Jackson serializer escapes surrogates instead of encoding the code point
+                    jsonBytes[json++] = '\\';
+                    jsonBytes[json++] = 'u';
+                    jsonBytes[json++] = HEX[c >> 12];
+                    jsonBytes[json++] = HEX[(c >> 8) & 0xF];
+                    jsonBytes[json++] = HEX[(c >> 4) & 0xF];
+                    jsonBytes[json++] = HEX[c & 0xF];
+                } else {
+                    jsonBytes[json++] = (byte) (0xE0 | (c >> 12));
+                    jsonBytes[json++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    jsonBytes[json++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.nisum.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nisum.exception.registration.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory store of the outcomes of requests carrying an
+ * {@code Idempotency-Key} header.
+ * <p>
+ * The first request with a given key runs its action; the outcome, result
+ * or exception, is kept for {@code idempotency.ttl-seconds} (at most
+ * {@code idempotency.max-keys} keys) and handed to every later request with
+ * the same key, which therefore skips the action entirely. Duplicates that
+ * arrive while the first request is still running share its future instead
+ * of running the action again. Failures the caller marks as retryable, such
+ * as a saturated hashing pool, are dropped once they complete, so a retry
+ * runs the action again.
+ * </p>
+ * <p>
+ * Each key is bound to a SHA-256 fingerprint of its request: reusing a key
+ * with a different request is rejected with an
+ * {@code IdempotencyKeyReusedException}. Requests are counted in
+ * {@code idempotency.requests}, tagged with {@code executed},
+ * {@code replayed} or {@code rejected}.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * The outcome of the first request with a key, bound to its fingerprint.
+     */
+    private record Entry(byte[] fingerprint, CompletableFuture<Object> outcome) {
+    }
+
+    private final Cache<String, Entry> entries;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    /**
+     * Creates the store and registers its metrics.
+     *
+     * @param meterRegistry the registry where the metrics are published
+     * @param maxKeys       maximum number of keys kept
+     * @param ttlSeconds    time an outcome is kept after its request started, in seconds
+     */
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${idempotency.max-keys:10000}") long maxKeys,
+                            @Value("${idempotency.ttl-seconds:3600}") long ttlSeconds) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+        this.executed = requestCounter(meterRegistry, "executed");
+        this.replayed = requestCounter(meterRegistry, "replayed");
+        this.rejected = requestCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Runs {@code action} for the first request with {@code key}, or returns
+     * the outcome of that first request.
+     *
+     * @param key         the idempotency key sent by the client
+     * @param fingerprint the fingerprint of the request, see {@link #fingerprint(byte[])}
+     * @param action      starts the work; it may throw or return a failed future
+     * @param retryable   tells which failures must not be kept
+     * @param <T>         the result type
+     * @return the outcome of the first request with this key
+     * @throws IdempotencyKeyReusedException if the key was used for another request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, byte[] fingerprint,
+                                            Supplier<CompletableFuture<T>> action,
+                                            Predicate<Throwable> retryable) {
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry entry = entries.get(key, k -> created);
+        if (!Arrays.equals(entry.fingerprint(), fingerprint)) {
+            rejected.increment();
+            throw new IdempotencyKeyReusedException();
+        }
+        if (entry != created) {
+            replayed.increment();
+            return (CompletableFuture<T>) entry.outcome();
+        }
+
+        executed.increment();
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        result.whenComplete((value, ex) -> {
+            if (ex == null) {
+                entry.outcome().complete(value);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (retryable.test(cause)) {
+                entries.asMap().remove(key, entry);
+            }
+            entry.outcome().completeExceptionally(cause);
+        });
+        return (CompletableFuture<T>) entry.outcome();
+    }
+
+    /**
+     * Computes the fingerprint binding a key to its request.
+     *
+     * @param request the serialized request
+     * @return the SHA-256 digest of {@code request}
+     */
+    public static byte[] fingerprint(byte[] request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(request);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.requests")
+                .tag("result", result)
+                .description("Requests carrying an idempotency key")
+                .register(meterRegistry);
+    }
+}
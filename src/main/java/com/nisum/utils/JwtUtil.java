@@ -1,29 +1,63 @@
 package com.nisum.utils;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-
-import java.util.Date;
+import java.io.IOException;
+import java.util.Optional;
 
 /**
- * Utility class for generating JWT (JSON Web Tokens). This class provides
- * methods to create tokens used for authentication and authorization,
+ * Utility class for generating and verifying JWT (JSON Web Tokens). This class
+ * provides methods to create tokens used for authentication and authorization,
  * utilizing a secret key and expiration settings defined in application properties.
+ * <p>
+ * Tokens are signed by an {@link Hs256TokenEngine}, which produces the same
+ * bytes as the jjwt builder without its per-token allocations.
+ * </p>
  *
  * @author avasquez
  */
 @Component
 public class JwtUtil {
 
+    private static final ObjectMapper CLAIMS_READER = new ObjectMapper();
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private int expirationHours;
 
+    private Hs256TokenEngine tokenEngine;
+
+    /**
+     * Claims of a token whose signature has been verified.
+     *
+     * @param subject         the token subject (the user's email)
+     * @param expiresAtMillis the expiration time, in epoch milliseconds
+     */
+    public record VerifiedToken(String subject, long expiresAtMillis) {
+
+        /**
+         * @param nowMillis the current time, in epoch milliseconds
+         * @return {@code true} if the token has expired at {@code nowMillis}
+         */
+        public boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    /**
+     * Builds the token engine once the secret has been injected.
+     */
+    @PostConstruct
+    public void init() {
+        tokenEngine = new Hs256TokenEngine(secretKey);
+    }
+
     /**
      * Generates a JWT token for the given email.
      *
@@ -31,11 +65,32 @@ public class JwtUtil {
      * @return a signed JWT token as a String
      */
     public String generateToken(String email) {
-        return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * expirationHours))
-                .signWith(SignatureAlgorithm.HS256, secretKey)
-                .compact();
+        long now = System.currentTimeMillis();
+        return tokenEngine.generate(email, now, now + 1000L * 60 * 60 * expirationHours);
+    }
+
+    /**
+     * Verifies a token's signature and expiration. No database access is needed.
+     *
+     * @param token the compact serialized token
+     * @return the verified claims, or empty if the token is forged, malformed or expired
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        byte[] claims = tokenEngine.verify(token);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode node = CLAIMS_READER.readTree(claims);
+            JsonNode subject = node.get("sub");
+            JsonNode expiration = node.get("exp");
+            if (subject == null || !subject.isTextual() || expiration == null || !expiration.canConvertToLong()) {
+                return Optional.empty();
+            }
+            VerifiedToken verified = new VerifiedToken(subject.asText(), expiration.asLong() * 1000);
+            return verified.isExpired(System.currentTimeMillis()) ? Optional.empty() : Optional.of(verified);
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
     }
 }
@@ -0,0 +1,181 @@
+package com.nisum.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for the {@code last_login} column of the {@code users} table.
+ * <p>
+ * Logins record their timestamp in a {@link ConcurrentHashMap} keyed by user
+ * id instead of updating the row, so repeated logins of the same user between
+ * two flushes coalesce into a single entry holding the latest timestamp.
+ * Every {@code users.last-login.flush-interval-ms} the pending entries are
+ * written with JDBC batch updates of {@code users.last-login.batch-size}
+ * rows, which bounds how stale {@code lastLogin} may be. Pending entries are
+ * also flushed when the application shuts down gracefully.
+ * </p>
+ * <p>
+ * An entry is only removed from the buffer if no newer login replaced it
+ * meanwhile, and the update never moves {@code last_login} backwards, so
+ * concurrent logins and flushes cannot lose the latest timestamp. The
+ * buffer size is published as the {@code users.last_login.pending} gauge.
+ * With a sharded store, each flush sends one batch per shard.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final String UPDATE_LAST_LOGIN =
+            "update users set last_login = ? where id = ? and (last_login is null or last_login < ?)";
+
+    private final ConcurrentHashMap<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserShards userShards;
+    private final UserDetailsCache userDetailsCache;
+    private final Counter flushed;
+
+    @Value("${users.last-login.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Creates the recorder and registers its metrics.
+     *
+     * @param dataSource       the datasource holding the {@code users} table
+     * @param userShards       the shard placement of the users
+     * @param userDetailsCache the cache whose entries are evicted once their login is written
+     * @param meterRegistry    the registry where the metrics are published
+     */
+    public LastLoginRecorder(DataSource dataSource, UserShards userShards, UserDetailsCache userDetailsCache,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.userShards = userShards;
+        this.userDetailsCache = userDetailsCache;
+        this.flushed = Counter.builder("users.last_login.flushed")
+                .description("Last login timestamps written to the database")
+                .register(meterRegistry);
+        Gauge.builder("users.last_login.pending", pending, Map::size)
+                .description("Last login timestamps waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a login, keeping only the latest timestamp per user.
+     *
+     * @param userId  the identifier of the user who logged in
+     * @param loginAt the time of the login
+     */
+    public void record(UUID userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * @return the number of users whose last login is not written yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending timestamp to the database in batches.
+     */
+    @Scheduled(fixedDelayString = "${users.last-login.flush-interval-ms:5000}",
+            initialDelayString = "${users.last-login.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        int capacity = Math.min(pending.size(), batchSize);
+        List<Object[]> batch = new ArrayList<>(capacity);
+        List<UUID> ids = new ArrayList<>(capacity);
+        for (Map.Entry<UUID, LocalDateTime> entry : pending.entrySet()) {
+            UUID id = entry.getKey();
+            LocalDateTime loginAt = entry.getValue();
+            // A newer login replaced the entry: leave it for the next flush
+            if (pending.remove(id, loginAt)) {
+                Timestamp timestamp = Timestamp.valueOf(loginAt);
+                batch.add(new Object[]{timestamp, id, timestamp});
+                ids.add(id);
+            }
+            if (batch.size() == batchSize) {
+                write(batch, ids);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, ids);
+        }
+    }
+
+    /**
+     * Flushes the pending timestamps before the application stops.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int count = pending.size();
+        flush();
+        if (count > 0) {
+            log.info("Flushed {} pending last login timestamps on shutdown", count);
+        }
+    }
+
+    private void write(List<Object[]> batch, List<UUID> ids) {
+        try {
+            if (userShards.count() == 1) {
+                jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+            } else {
+                writeSharded(batch, ids);
+            }
+            flushed.increment(batch.size());
+            ids.forEach(userDetailsCache::invalidate);
+        } catch (RuntimeException ex) {
+            log.warn("Could not write {} last login timestamps, retrying on the next flush", batch.size(), ex);
+            for (int i = 0; i < ids.size(); i++) {
+                record(ids.get(i), ((Timestamp) batch.get(i)[0]).toLocalDateTime());
+            }
+        }
+        batch.clear();
+        ids.clear();
+    }
+
+    /**
+     * Writes a batch with one batch update per shard. While a rebalance is
+     * pending, a row is also updated on its user's previous shard, before its
+     * current one: a row the {@code ShardRebalancer} is moving stays locked on
+     * the previous shard until the copy exists, so one of the two updates
+     * always reaches it.
+     */
+    private void writeSharded(List<Object[]> batch, List<UUID> ids) {
+        Map<Integer, List<Object[]>> byPreviousShard = new TreeMap<>();
+        Map<Integer, List<Object[]>> byShard = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            int[] shards = userShards.shardsOf(ids.get(i));
+            byShard.computeIfAbsent(shards[0], key -> new ArrayList<>()).add(batch.get(i));
+            if (shards.length > 1) {
+                byPreviousShard.computeIfAbsent(shards[1], key -> new ArrayList<>()).add(batch.get(i));
+            }
+        }
+        for (Map<Integer, List<Object[]>> updates : List.of(byPreviousShard, byShard)) {
+            updates.forEach((shard, rows) -> userShards.on(shard,
+                    () -> jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, rows)));
+        }
+    }
+}
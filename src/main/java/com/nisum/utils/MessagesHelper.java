@@ -4,28 +4,61 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for retrieving localized messages from resource bundles.
  * This class provides a method to fetch messages by their key, allowing
  * for internationalization and easier management of application messages.
+ * <p>
+ * Messages are resolved once per key and locale and kept in memory, so the
+ * {@code MessageSource} is not asked again on every error. The locales come
+ * from {@link #SUPPORTED_LOCALES}, which keeps the number of cached entries
+ * bounded whatever the clients send.
+ * </p>
  *
  * @author avasquez
  */
 @Component
 public class MessagesHelper {
 
+    /**
+     * The language of {@code messages.properties}, used when a request does not choose one.
+     */
+    public static final Locale DEFAULT_LOCALE = Locale.forLanguageTag("es");
+
+    /**
+     * The locales with a message bundle, the default one first.
+     */
+    public static final List<Locale> SUPPORTED_LOCALES = List.of(DEFAULT_LOCALE, Locale.ENGLISH);
+
     @Autowired
     private MessageSource messageSource;
 
+    private final Map<Locale, Map<String, String>> messages = new ConcurrentHashMap<>();
+
     /**
-     * Retrieves a message corresponding to the given key.
+     * Retrieves a message corresponding to the given key in the default language.
      *
      * @param key the key for the desired message
      * @return the localized message as a String
      */
     public String getMessage(String key) {
-        return messageSource.getMessage(key, null, Locale.getDefault());
+        return getMessage(key, DEFAULT_LOCALE);
+    }
+
+    /**
+     * Retrieves a message corresponding to the given key in the given language.
+     *
+     * @param key    the key for the desired message
+     * @param locale one of the {@link #SUPPORTED_LOCALES}
+     * @return the localized message as a String
+     */
+    public String getMessage(String key, Locale locale) {
+        return messages.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> messageSource.getMessage(k, null, locale));
     }
 }
@@ -0,0 +1,223 @@
+package com.nisum.utils;
+
+import com.nisum.exception.registration.RegistrationBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for hashing passwords off the request threads.
+ * <p>
+ * Every hash is submitted to the dedicated {@code passwordHashingExecutor}.
+ * The time each task spends queued before a hashing thread picks it up is
+ * recorded in the {@code password.hashing.wait} timer, and a full queue is
+ * reported as a {@code RegistrationBusyException}. The pool size alone bounds
+ * the hashes computed on it. BCrypt work done on a caller's thread, the
+ * overflow of {@link #encodeAll(List)} and {@link #matches(String, String)},
+ * holds a permit of the {@code cpuBulkhead} instead, which it shares with
+ * token signing.
+ * </p>
+ * <p>
+ * The BCrypt cost is {@code hashing.bcrypt.cost}, or, when it is 0, the
+ * highest cost whose hash fits in {@code hashing.bcrypt.target-ms} on this
+ * host, calibrated at startup by {@link BcryptCostCalibrator}. Hashes are
+ * stored as {@code {bcrypt}$2a$<cost>$...}, so each one records its algorithm
+ * and cost; hashes without the {@code {bcrypt}} prefix, stored before it was
+ * added, are still verified as BCrypt. {@link #needsRehash(String)} tells
+ * whether a stored hash is weaker than the current parameters. A hash with a
+ * higher cost is kept: nodes calibrating different costs would otherwise
+ * keep rewriting the same users' hashes on each other's logins.
+ * The time of one hash at that cost is measured at startup, to size
+ * admission control.
+ * </p>
+ * <p>
+ * {@link #matches(String, String)} runs a full BCrypt comparison even when
+ * there is no stored hash, against a dummy hash made at startup with the
+ * current cost, so a failed login takes as long whether the email is
+ * registered or not.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class PasswordHasher {
+
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    @Qualifier("cpuBulkhead")
+    private Bulkhead cpuBulkhead;
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\{" + BCRYPT_ID + "}\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final int cost;
+    private final long hashNanos;
+    private final String dummyHash;
+    private final PasswordEncoder passwordEncoder;
+
+    private final Timer waitTimer;
+
+    /**
+     * Creates the hasher, calibrating the BCrypt cost if none is configured,
+     * and registers its metrics.
+     *
+     * @param meterRegistry the registry where the wait timer and cost gauge are published
+     * @param cost          the BCrypt cost, 0 to calibrate it on this host
+     * @param targetMs      the calibration budget for a single hash, in milliseconds
+     * @param minCost       the lowest cost calibration may pick
+     * @param maxCost       the highest cost calibration may pick
+     */
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${hashing.bcrypt.cost:0}") int cost,
+                          @Value("${hashing.bcrypt.target-ms:100}") long targetMs,
+                          @Value("${hashing.bcrypt.min-cost:8}") int minCost,
+                          @Value("${hashing.bcrypt.max-cost:14}") int maxCost) {
+        if (cost > 0) {
+            this.cost = cost;
+        } else {
+            long start = System.currentTimeMillis();
+            this.cost = BcryptCostCalibrator.calibrate(Duration.ofMillis(targetMs), minCost, maxCost);
+            log.info("BCrypt cost calibrated to {} for a {} ms budget in {} ms",
+                    this.cost, targetMs, System.currentTimeMillis() - start);
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(this.cost);
+        bcrypt.encode("startup-probe"); // warm-up
+        long start = System.nanoTime();
+        this.dummyHash = bcrypt.encode(UUID.randomUUID().toString());
+        this.hashNanos = System.nanoTime() - start;
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        this.passwordEncoder = delegating;
+
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a password hashing task waits in the queue")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.cost", this, PasswordHasher::getCost)
+                .description("BCrypt cost factor of new password hashes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes the given raw password on the hashing pool.
+     *
+     * @param rawPassword the password to hash
+     * @return a future completed with the encoded password
+     * @throws RegistrationBusyException if the hashing queue is full
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        try {
+            return submit(rawPassword);
+        } catch (RejectedExecutionException ex) {
+            throw new RegistrationBusyException();
+        }
+    }
+
+    /**
+     * Hashes several raw passwords in parallel on the hashing pool.
+     * <p>
+     * Passwords that do not fit in the queue are hashed on the calling thread,
+     * which throttles bulk callers instead of rejecting them.
+     * </p>
+     *
+     * @param rawPasswords the passwords to hash
+     * @return the encoded passwords, in the same order as the input
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            try {
+                futures.add(submit(rawPassword));
+            } catch (RejectedExecutionException ex) {
+                futures.add(CompletableFuture.completedFuture(cpuBulkhead.call(
+                        () -> passwordEncoder.encode(rawPassword), RegistrationBusyException::new)));
+            }
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Verifies a raw password against a stored hash on the calling thread,
+     * holding a {@code cpuBulkhead} permit.
+     * <p>
+     * Without a password or a stored hash the password is compared with the
+     * dummy hash instead, and never matches.
+     * </p>
+     *
+     * @param rawPassword     the password to check, may be {@code null}
+     * @param encodedPassword the stored hash, with or without its {@code {bcrypt}} prefix,
+     *                        {@code null} if there is none
+     * @return {@code true} if the password matches
+     * @throws RegistrationBusyException if no CPU permit is available in time
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            cpuBulkhead.call(() -> passwordEncoder.matches(rawPassword == null ? "" : rawPassword, dummyHash),
+                    RegistrationBusyException::new);
+            return false;
+        }
+        return cpuBulkhead.call(() -> passwordEncoder.matches(rawPassword, encodedPassword),
+                RegistrationBusyException::new);
+    }
+
+    /**
+     * Tells whether a stored hash should be replaced by a new one, because it
+     * lacks the algorithm prefix or was made with a lower cost than the
+     * current one.
+     *
+     * @param encodedPassword the stored hash
+     * @return {@code true} if the password should be hashed again
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.lookingAt() || Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    /**
+     * @return the BCrypt cost factor of new hashes
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * @return the time one hash took at startup, in nanoseconds
+     */
+    public long getHashNanos() {
+        return hashNanos;
+    }
+
+    private CompletableFuture<String> submit(String rawPassword) {
+        long submittedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return passwordEncoder.encode(rawPassword);
+        }, executor);
+    }
+}
@@ -0,0 +1,182 @@
+package com.nisum.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@code DataSource} sending read-only transactions to a replica and
+ * everything else to the primary.
+ * <p>
+ * Work inside a {@code @Transactional(readOnly = true)} transaction (which
+ * includes the repositories' finder methods) gets a replica connection; writes,
+ * read-write transactions and work outside any transaction get a primary
+ * connection. The routing decision is taken when the connection is fetched,
+ * so this data source must be wrapped in a {@link LazyConnectionDataSourceProxy}:
+ * the transaction manager fetches its connection before it marks the
+ * transaction read-only, and the proxy delays the fetch to the first statement.
+ * </p>
+ * <p>
+ * {@link #onPrimary(Supplier)} forces reads to the primary, for data just
+ * written that the replica may not have yet. If the replica refuses a
+ * connection, the read fails over to the primary and the replica is left
+ * alone for {@code retryReplicaAfter}; only connection failures fail over,
+ * not statements failing on an established replica connection.
+ * </p>
+ * <p>
+ * Metrics: {@code datasource.routing} counts connections per
+ * {@code target}, and {@code datasource.replica.failovers} counts reads sent
+ * to the primary because the replica was unavailable.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    /**
+     * The lookup keys of the target data sources.
+     */
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryReplicaAfterNanos;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter failovers;
+
+    private volatile boolean replicaDown;
+    private volatile long replicaRetryAt;
+
+    /**
+     * Creates the routing data source and registers its metrics.
+     *
+     * @param primary           the data source receiving writes
+     * @param replica           the data source receiving read-only transactions
+     * @param retryReplicaAfter how long reads stay on the primary after the replica failed
+     * @param meterRegistry     the registry where the metrics are published
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration retryReplicaAfter,
+                                      MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryReplicaAfterNanos = retryReplicaAfter.toNanos();
+        this.primaryConnections = routingCounter(meterRegistry, Target.PRIMARY);
+        this.replicaConnections = routingCounter(meterRegistry, Target.REPLICA);
+        this.failovers = Counter.builder("datasource.replica.failovers")
+                .description("Reads sent to the primary because the replica was unavailable")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs an action whose reads must see the primary's latest writes.
+     *
+     * @param action the action to run
+     * @param <T>    the type of the action's result
+     * @return the action's result
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (FORCE_PRIMARY.get() != null) {
+            return action.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && FORCE_PRIMARY.get() == null
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Fetches a connection from the target of the current transaction,
+     * falling back to the primary while the replica is unavailable.
+     */
+    private Connection connect(ConnectionSource source) throws SQLException {
+        if (determineTargetDataSource() == replica) {
+            if (isReplicaAvailable()) {
+                try {
+                    Connection connection = source.connect(replica);
+                    replicaUp();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException | RuntimeException ex) {
+                    replicaFailed(ex);
+                }
+            }
+            failovers.increment();
+        }
+        primaryConnections.increment();
+        return source.connect(primary);
+    }
+
+    private boolean isReplicaAvailable() {
+        return !replicaDown || System.nanoTime() - replicaRetryAt >= 0;
+    }
+
+    private void replicaUp() {
+        if (replicaDown) {
+            replicaDown = false;
+            log.info("Replica available again, read-only transactions use it");
+        }
+    }
+
+    private void replicaFailed(Exception ex) {
+        replicaRetryAt = System.nanoTime() + retryReplicaAfterNanos;
+        if (!replicaDown) {
+            replicaDown = true;
+            log.warn("Replica unavailable, reading from the primary for the next {} ms",
+                    Duration.ofNanos(retryReplicaAfterNanos).toMillis(), ex);
+        }
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, Target target) {
+        return Counter.builder("datasource.routing")
+                .description("Connections fetched, per routing target")
+                .tag("target", target.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.nisum.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes window for the reads routed to a replica.
+ * <p>
+ * A replica applies the primary's writes with some lag, so a user read right
+ * after registering might not be found there yet. Registrations record the
+ * new user's id and email here, and for {@code datasource.read-your-writes-ms}
+ * afterwards lookups of that user read from the primary through
+ * {@link ReadWriteRoutingDataSource#onPrimary(Supplier)}. The window should
+ * exceed the replica's usual lag; 0 disables it. At most
+ * {@code datasource.read-your-writes-max-keys} keys are remembered.
+ * </p>
+ * <p>
+ * Without a replica every read goes to the primary anyway, and forcing it
+ * changes nothing.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class ReadYourWrites {
+
+    private final boolean enabled;
+    private final Cache<Object, Boolean> recentWrites;
+
+    /**
+     * Creates the window.
+     *
+     * @param windowMs how long reads of a written key go to the primary, in milliseconds
+     * @param maxKeys  maximum number of keys remembered
+     */
+    public ReadYourWrites(@Value("${datasource.read-your-writes-ms:5000}") long windowMs,
+                          @Value("${datasource.read-your-writes-max-keys:100000}") long maxKeys) {
+        this.enabled = windowMs > 0;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMillis(Math.max(windowMs, 1)))
+                .build();
+    }
+
+    /**
+     * Records that the data identified by the given keys was just written.
+     *
+     * @param keys the keys the data is read by, such as a user's id and email
+     */
+    public void written(Object... keys) {
+        if (!enabled) {
+            return;
+        }
+        for (Object key : keys) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Runs a lookup on the primary if its key was written within the window,
+     * and wherever the routing sends it otherwise.
+     *
+     * @param key    the key of the data read
+     * @param lookup the lookup to run
+     * @param <T>    the type of the lookup's result
+     * @return the lookup's result
+     */
+    public <T> T read(Object key, Supplier<T> lookup) {
+        return recentWrites.getIfPresent(key) != null
+                ? ReadWriteRoutingDataSource.onPrimary(lookup)
+                : lookup.get();
+    }
+}
@@ -0,0 +1,162 @@
+package com.nisum.utils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe scalable Bloom filter over strings.
+ * <p>
+ * The filter is a chain of fixed-size Bloom filters. Once the newest slice
+ * reaches its capacity a new slice, twice as large and with half the false
+ * positive rate, is appended, so the overall false positive rate stays below
+ * the configured one no matter how many values are added. Bits are set with
+ * lock-free compare-and-set operations; only slice growth is synchronized.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class ScalableBloomFilter {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Slice> slices = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param initialCapacity   number of values the first slice is sized for
+     * @param falsePositiveRate target false positive rate of the whole filter
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        slices.add(new Slice(Math.max(initialCapacity, 64), falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add
+     */
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        Slice slice = slices.get(slices.size() - 1);
+        if (slice.isFull()) {
+            slice = grow(slice);
+        }
+        slice.put(hash1, hash2);
+    }
+
+    /**
+     * Checks whether a value may have been added.
+     *
+     * @param value the value to look up
+     * @return {@code false} if the value was definitely never added
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (Slice slice : slices) {
+            if (slice.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the approximate number of values added
+     */
+    public long size() {
+        return slices.stream().mapToLong(slice -> slice.count.get()).sum();
+    }
+
+    /**
+     * @return the number of slices the filter has grown to
+     */
+    public int sliceCount() {
+        return slices.size();
+    }
+
+    /**
+     * @return the total memory used by the bit arrays, in bytes
+     */
+    public long bitSizeInBytes() {
+        return slices.stream().mapToLong(slice -> slice.bits.length() * 8L).sum();
+    }
+
+    private synchronized Slice grow(Slice full) {
+        Slice last = slices.get(slices.size() - 1);
+        if (last == full) {
+            last = new Slice(full.capacity * 2, full.falsePositiveRate * TIGHTENING_RATIO);
+            slices.add(last);
+        }
+        return last;
+    }
+
+    private static long hash(String value) {
+        // 64-bit FNV-1a over the UTF-16 code units, finished with a mixer
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * A single fixed-size Bloom filter using double hashing.
+     */
+    private static final class Slice {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long numBits;
+        private final int numHashes;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+            this.numBits = words * 64L;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+            this.bits = new AtomicLongArray(words);
+        }
+
+        private boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        private void put(long hash1, long hash2) {
+            for (int i = 0; i < numHashes; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, numBits);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current = bits.get(word);
+                while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    current = bits.get(word);
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        private boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < numHashes; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, numBits);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
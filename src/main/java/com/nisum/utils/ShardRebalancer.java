@@ -0,0 +1,168 @@
+package com.nisum.utils;
+
+import com.nisum.entity.id.ShardBuckets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves users to the shard owning their bucket after shards were added.
+ * <p>
+ * Growing the store is done in three steps: append the new shards to
+ * {@code sharding.urls} and set {@code sharding.previous-count} to the former
+ * number of shards, run {@link #rebalance()} (the {@code shards} actuator
+ * endpoint), then remove {@code sharding.previous-count}. Meanwhile lookups
+ * try a user's former shard when it is not yet on its new one.
+ * </p>
+ * <p>
+ * Every shard is scanned in id order, {@value #PAGE_SIZE} ids at a time,
+ * and each misplaced user is copied with its phones to its shard, then
+ * deleted from the one it was on. The user is read {@code for update} in a
+ * transaction on its current shard that stays open until the copy is
+ * committed on the new one, so a {@code last_login} update arriving
+ * meanwhile waits, then finds the copy (the {@code LastLoginRecorder}
+ * writes a user's previous shard before its current one). If the rebalance
+ * stops between the copy and the delete, the next run finds the copy
+ * already there and only deletes the original; exports skip the second
+ * row of a user found on two shards. Outbox events stay where they were
+ * written, the relay drains every shard.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int PAGE_SIZE = 1000;
+
+    private static final String SELECT_IDS =
+            "select id from users where id > ? order by id fetch first " + PAGE_SIZE + " rows only";
+    private static final String SELECT_FIRST_IDS =
+            "select id from users order by id fetch first " + PAGE_SIZE + " rows only";
+
+    private final UserShards userShards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate targetTransactionTemplate;
+    private final Counter moved;
+
+    /**
+     * Creates the rebalancer and registers its metrics.
+     *
+     * @param userShards         the shard placement
+     * @param dataSource         the datasource routing to the shards
+     * @param transactionManager the transaction manager of that datasource
+     * @param meterRegistry      the registry where the metrics are published
+     */
+    public ShardRebalancer(UserShards userShards, DataSource dataSource,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.userShards = userShards;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.targetTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.targetTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.moved = Counter.builder("sharding.rebalance.moved")
+                .description("Users moved to another shard by the rebalancer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Moves every misplaced user to its shard.
+     *
+     * @return the number of users moved
+     */
+    public synchronized long rebalance() {
+        long total = 0;
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            int source = shard;
+            total += userShards.on(source, () -> rebalanceShard(source));
+        }
+        log.info("Rebalance over {} shards moved {} users", userShards.count(), total);
+        return total;
+    }
+
+    /**
+     * Moves the misplaced users of one shard, bound to the calling thread.
+     */
+    private long rebalanceShard(int source) {
+        long count = 0;
+        List<UUID> page = jdbcTemplate.queryForList(SELECT_FIRST_IDS, UUID.class);
+        while (!page.isEmpty()) {
+            for (UUID id : page) {
+                int target = userShards.shardOf(ShardBuckets.of(id));
+                if (target != source && move(id, target)) {
+                    count++;
+                }
+            }
+            page = page.size() < PAGE_SIZE
+                    ? List.of()
+                    : jdbcTemplate.queryForList(SELECT_IDS, UUID.class, page.get(page.size() - 1));
+        }
+        return count;
+    }
+
+    /**
+     * Copies a user of the current shard to its target shard, then deletes it
+     * from the current one, holding the lock of the original row throughout.
+     *
+     * @return {@code true} if the user was moved
+     */
+    private boolean move(UUID id, int target) {
+        Boolean done = transactionTemplate.execute(status -> {
+            Map<String, Object> user;
+            try {
+                user = jdbcTemplate.queryForMap("select * from users where id = ? for update", id);
+            } catch (EmptyResultDataAccessException ex) {
+                // Deleted since the page was read
+                return false;
+            }
+            List<Map<String, Object>> phones = jdbcTemplate.queryForList("select * from phones where user_id = ?", id);
+
+            Boolean copied = userShards.on(target, () -> targetTransactionTemplate.execute(targetStatus -> {
+                try {
+                    insert("users", user);
+                } catch (DuplicateKeyException ex) {
+                    // Either copied by an interrupted run, or the email was registered again on the target
+                    return jdbcTemplate.queryForObject("select count(*) from users where id = ?", Long.class, id) > 0;
+                }
+                phones.forEach(phone -> insert("phones", phone));
+                return true;
+            }));
+            if (!Boolean.TRUE.equals(copied)) {
+                log.warn("User {} not moved to shard {}: its email is registered there by another user", id, target);
+                return false;
+            }
+            jdbcTemplate.update("delete from users where id = ?", id);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(done)) {
+            return false;
+        }
+        moved.increment();
+        return true;
+    }
+
+    private void insert(String table, Map<String, Object> row) {
+        List<String> columns = new ArrayList<>(row.keySet());
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        jdbcTemplate.update(sql, row.values().toArray());
+    }
+}
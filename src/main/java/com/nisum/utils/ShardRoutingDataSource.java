@@ -0,0 +1,70 @@
+package com.nisum.utils;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@code DataSource} spreading the user store over several databases, the
+ * shards.
+ * <p>
+ * Connections come from the shard bound to the calling thread by
+ * {@link #on(int, Supplier)}, or from shard 0 when none is bound. The shard
+ * must be bound before a transaction starts: a transaction keeps the
+ * connection it started with.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    /**
+     * Creates the routing data source.
+     *
+     * @param shards the data source of each shard, in shard order
+     */
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs an action against one shard.
+     *
+     * @param shard  the shard the action's connections come from
+     * @param action the action to run
+     * @param <T>    the type of the action's result
+     * @return the action's result
+     */
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+}
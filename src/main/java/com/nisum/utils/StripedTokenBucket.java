@@ -0,0 +1,68 @@
+package com.nisum.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket split into stripes, for a limit shared by every request.
+ * <p>
+ * A single bucket would make every caller compare-and-set the same word.
+ * Here the rate and capacity are divided among {@code stripes} independent
+ * {@link TokenBucket} states, each in its own cache line, and a caller takes
+ * a token from a random stripe, probing the others only if that one is
+ * empty. The total rate and capacity are those of the whole bucket.
+ * </p>
+ *
+ * @author avasquez
+ */
+public final class StripedTokenBucket {
+
+    /**
+     * Slots between two stripes: 8 longs fill a 64-byte cache line.
+     */
+    private static final int PADDING = 8;
+
+    private final TokenBucket[] buckets;
+    private final int stripes;
+    private final AtomicLongArray states;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param tokensPerSecond the total refill rate
+     * @param capacity        the total maximum number of tokens
+     * @param stripes         the number of stripes, capped so that each holds at least one token
+     */
+    public StripedTokenBucket(double tokensPerSecond, int capacity, int stripes) {
+        this.stripes = Math.max(1, Math.min(stripes, capacity));
+        this.buckets = new TokenBucket[this.stripes];
+        this.states = new AtomicLongArray(this.stripes * PADDING);
+        long now = System.nanoTime();
+        for (int i = 0; i < this.stripes; i++) {
+            // The first capacity % stripes stripes hold one more token, and refill proportionally faster
+            int stripeCapacity = capacity / this.stripes + (i < capacity % this.stripes ? 1 : 0);
+            buckets[i] = new TokenBucket(tokensPerSecond * stripeCapacity / capacity, stripeCapacity);
+            states.set(i * PADDING, now);
+        }
+    }
+
+    /**
+     * Takes a token from any stripe that has one.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryTake(long nowNanos) {
+        int first = stripes == 1 ? 0 : ThreadLocalRandom.current().nextInt(stripes);
+        long minWait = Long.MAX_VALUE;
+        for (int i = 0; i < stripes; i++) {
+            int index = (first + i) % stripes;
+            long wait = buckets[index].tryTake(states, index * PADDING, nowNanos);
+            if (wait == 0) {
+                return 0;
+            }
+            minWait = Math.min(minWait, wait);
+        }
+        return minWait;
+    }
+}
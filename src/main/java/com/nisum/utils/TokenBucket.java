@@ -0,0 +1,93 @@
+package com.nisum.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free token bucket, refilled at {@code tokensPerSecond} and holding
+ * at most {@code capacity} tokens.
+ * <p>
+ * It is implemented as the generic cell rate algorithm: instead of a token
+ * count and a refill time, a bucket's whole state is a single {@code long},
+ * the theoretical arrival time of the next request in {@link System#nanoTime()}
+ * units. Taking a token is a read and one compare-and-set, so concurrent
+ * callers never block, and a bucket costs one {@link AtomicLong} (or one
+ * slot of an {@link AtomicLongArray}). This class only holds the rate and
+ * capacity; the states are created by {@link #newState(long)} and kept by
+ * the caller, so one instance serves any number of buckets.
+ * </p>
+ *
+ * @author avasquez
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * Creates the bucket parameters.
+     *
+     * @param tokensPerSecond the refill rate
+     * @param capacity        the maximum number of tokens, that is, the largest burst
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("rate and capacity must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.toleranceNanos = intervalNanos * capacity;
+    }
+
+    /**
+     * Creates the state of a full bucket.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return the state to pass to {@link #tryTake(AtomicLong, long)}
+     */
+    public AtomicLong newState(long nowNanos) {
+        return new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token from the bucket whose state is {@code state}.
+     *
+     * @param state    the bucket state
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryTake(AtomicLong state, long nowNanos) {
+        while (true) {
+            long arrival = state.get();
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (state.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Takes a token from the bucket whose state is slot {@code index} of {@code states}.
+     *
+     * @param states   the bucket states
+     * @param index    the slot of this bucket
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryTake(AtomicLongArray states, int index, long nowNanos) {
+        while (true) {
+            long arrival = states.get(index);
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (states.compareAndSet(index, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.nisum.utils;
+
+import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.user.UserDetailsDTO;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Writes users as RFC 4180 CSV, one line per user.
+ * <p>
+ * The phones of a user are packed into a single {@code phones} column as
+ * {@code number/citycode/countrycode} entries separated by {@code ;}. Fields
+ * containing a comma, quote or line break are quoted.
+ * </p>
+ *
+ * @author avasquez
+ */
+public class UserCsvWriter {
+
+    private static final String HEADER = "id,name,email,created,modified,last_login,is_active,phones\r\n";
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Creates a CSV writer and writes the header line.
+     *
+     * @param writer the destination of the CSV text
+     * @throws IOException if the header cannot be written
+     */
+    public UserCsvWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write(HEADER);
+    }
+
+    /**
+     * Writes one user as a CSV line.
+     *
+     * @param user the user to write
+     * @throws IOException if the line cannot be written
+     */
+    public void write(UserDetailsDTO user) throws IOException {
+        line.setLength(0);
+        line.append(user.getId()).append(',');
+        appendField(user.getName());
+        line.append(',');
+        appendField(user.getEmail());
+        line.append(',');
+        appendDateTime(user.getCreated());
+        line.append(',');
+        appendDateTime(user.getModified());
+        line.append(',');
+        appendDateTime(user.getLastLogin());
+        line.append(',').append(user.isActive()).append(',');
+        StringBuilder phones = new StringBuilder();
+        if (user.getPhones() != null) {
+            for (PhoneDTO phone : user.getPhones()) {
+                if (!phones.isEmpty()) {
+                    phones.append(';');
+                }
+                phones.append(nullToEmpty(phone.getNumber())).append('/')
+                        .append(nullToEmpty(phone.getCitycode())).append('/')
+                        .append(nullToEmpty(phone.getCountrycode()));
+            }
+        }
+        appendField(phones.toString());
+        line.append("\r\n");
+        writer.append(line);
+    }
+
+    private void appendDateTime(LocalDateTime dateTime) {
+        if (dateTime != null) {
+            line.append(dateTime);
+        }
+    }
+
+    private void appendField(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
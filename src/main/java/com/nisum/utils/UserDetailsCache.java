@@ -0,0 +1,134 @@
+package com.nisum.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nisum.dto.user.UserDetailsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of the users served by the read endpoints.
+ * <p>
+ * Users are cached by id, and emails map to ids in a second cache of the same
+ * bounds, so a user looked up both ways is stored once. Entries are evicted
+ * {@code users.cache.ttl-seconds} after being written, or earlier once more
+ * than {@code users.cache.max-size} users are cached; a size of 0 disables
+ * caching. Registration writes new users through, so the first read of a
+ * fresh user never reaches the database.
+ * </p>
+ * <p>
+ * Hits, misses and evictions are published as the {@code cache.*} metrics of
+ * the {@code users} and {@code users.email} caches.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class UserDetailsCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, UserDetailsDTO> usersById;
+    private final Cache<String, UUID> idsByEmail;
+
+    /**
+     * Creates the caches and registers their metrics.
+     *
+     * @param meterRegistry the registry where the metrics are published
+     * @param maxSize       maximum number of cached users, 0 to disable caching
+     * @param ttlSeconds    time a user stays cached after being written, in seconds
+     */
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${users.cache.max-size:10000}") long maxSize,
+                            @Value("${users.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = maxSize > 0;
+        this.usersById = newCache(maxSize, ttlSeconds);
+        this.idsByEmail = newCache(maxSize, ttlSeconds);
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.email");
+    }
+
+    /**
+     * Returns a cached user, loading and caching it on a miss. Concurrent
+     * misses for the same id share a single load.
+     *
+     * @param id     the user identifier
+     * @param loader loads the user from the database, returning {@code null} if it does not exist
+     * @return the user, or {@code null} if it does not exist
+     */
+    public UserDetailsDTO get(UUID id, Function<UUID, UserDetailsDTO> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        UserDetailsDTO user = usersById.get(id, loader);
+        if (user != null) {
+            idsByEmail.put(user.getEmail(), id);
+        }
+        return user;
+    }
+
+    /**
+     * Returns a cached user by email, loading and caching it on a miss.
+     *
+     * @param email  the normalized email address
+     * @param loader loads the user from the database, returning {@code null} if it does not exist
+     * @return the user, or {@code null} if it does not exist
+     */
+    public UserDetailsDTO getByEmail(String email, Supplier<UserDetailsDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        UUID id = idsByEmail.getIfPresent(email);
+        UserDetailsDTO user = id == null ? null : usersById.getIfPresent(id);
+        if (user == null) {
+            user = loader.get();
+            if (user != null) {
+                put(user);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Writes a user through to the cache, replacing any previous entry.
+     *
+     * @param user the user as just saved
+     */
+    public void put(UserDetailsDTO user) {
+        if (!enabled) {
+            return;
+        }
+        usersById.put(user.getId(), user);
+        idsByEmail.put(user.getEmail(), user.getId());
+    }
+
+    /**
+     * Evicts a user, so that its next lookup reads it from the database again.
+     *
+     * @param id the identifier of the user
+     */
+    public void invalidate(UUID id) {
+        usersById.invalidate(id);
+    }
+
+    /**
+     * @return the cache of users by id, for statistics
+     */
+    public Cache<UUID, UserDetailsDTO> getUsersById() {
+        return usersById;
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+}
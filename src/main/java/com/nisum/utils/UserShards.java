@@ -0,0 +1,394 @@
+package com.nisum.utils;
+
+import com.nisum.entity.id.ShardBuckets;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Placement of users on the shards configured by {@code sharding.urls}.
+ * <p>
+ * A user belongs to the shard owning its {@link ShardBuckets bucket}, which
+ * is chosen by jump consistent hashing: when shards are added, only the
+ * buckets moving to the new shards change owner. Registration and lookups
+ * by email or id therefore touch a single shard, while queries over every
+ * user ({@link #fanOut}, {@link #forEachOrdered}) run on all shards in
+ * parallel, one virtual thread per shard.
+ * </p>
+ * <p>
+ * While users are being moved after adding shards, {@code sharding.previous-count}
+ * holds the former number of shards: lookups that miss on a user's shard
+ * then try the shard that owned it before, until the {@link ShardRebalancer}
+ * is done. Without sharding there is a single shard, and every method runs
+ * its action directly on the calling thread.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Component
+public class UserShards {
+
+    /**
+     * Items buffered per shard while their stream waits to be merged.
+     */
+    private static final int MERGE_BUFFER = 256;
+
+    private static final Object END = new Object();
+
+    private final int count;
+    private final int previousCount;
+    private final ExecutorService fanOutExecutor;
+
+    /**
+     * Produces one shard's items, in order, to a sink.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface ShardProducer<T> {
+
+        /**
+         * Produces the items of a shard, with its connections bound to it.
+         *
+         * @param shard the shard to read
+         * @param sink  receives the items in order
+         */
+        void produce(int shard, Consumer<T> sink);
+    }
+
+    private record Head<T>(T item, int shard) {
+    }
+
+    private record Failure(Throwable cause) {
+    }
+
+    /**
+     * Creates the shard placement.
+     *
+     * @param enabled       whether the user store is sharded
+     * @param urls          the JDBC URL of each shard, in shard order
+     * @param previousCount the number of shards before the last growth, 0 once rebalanced
+     */
+    public UserShards(@Value("${sharding.enabled:false}") boolean enabled,
+                      @Value("${sharding.urls:}") List<String> urls,
+                      @Value("${sharding.previous-count:0}") int previousCount) {
+        this.count = enabled ? urls.size() : 1;
+        if (count < 1 || count > ShardBuckets.COUNT) {
+            throw new IllegalArgumentException("sharding.urls must list between 1 and "
+                    + ShardBuckets.COUNT + " shards");
+        }
+        if (previousCount >= count) {
+            throw new IllegalArgumentException("sharding.previous-count must be lower than the number of shards");
+        }
+        this.previousCount = previousCount;
+        this.fanOutExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-", 0).factory());
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of shards before the last growth, 0 if no rebalance is pending
+     */
+    public int previousCount() {
+        return previousCount;
+    }
+
+    /**
+     * Returns the shard owning a bucket.
+     *
+     * @param bucket the shard bucket
+     * @return the shard of the bucket
+     */
+    public int shardOf(int bucket) {
+        return jumpHash(bucket, count);
+    }
+
+    /**
+     * @param normalizedEmail the email address in its stored form
+     * @return the shard of the user with this email
+     */
+    public int shardOf(String normalizedEmail) {
+        return shardOf(ShardBuckets.of(normalizedEmail));
+    }
+
+    /**
+     * @param id the identifier of a user
+     * @return the shard of the user with this identifier
+     */
+    public int shardOf(UUID id) {
+        return shardOf(ShardBuckets.of(id));
+    }
+
+    /**
+     * Returns the shards a user of a bucket may be on: its shard and, until
+     * the rebalance is over, the shard that owned the bucket before.
+     *
+     * @param bucket the shard bucket
+     * @return the candidate shards, the current one first
+     */
+    public int[] shardsOf(int bucket) {
+        int shard = shardOf(bucket);
+        if (previousCount > 0) {
+            int previous = jumpHash(bucket, previousCount);
+            if (previous != shard) {
+                return new int[]{shard, previous};
+            }
+        }
+        return new int[]{shard};
+    }
+
+    /**
+     * @param normalizedEmail the email address in its stored form
+     * @return the shards the user with this email may be on, see {@link #shardsOf(int)}
+     */
+    public int[] shardsOf(String normalizedEmail) {
+        return shardsOf(ShardBuckets.of(normalizedEmail));
+    }
+
+    /**
+     * @param id the identifier of a user
+     * @return the shards the user with this identifier may be on, see {@link #shardsOf(int)}
+     */
+    public int[] shardsOf(UUID id) {
+        return shardsOf(ShardBuckets.of(id));
+    }
+
+    /**
+     * Runs an action against one shard.
+     *
+     * @param shard  the shard the action's connections come from
+     * @param action the action to run
+     * @param <T>    the type of the action's result
+     * @return the action's result
+     */
+    public <T> T on(int shard, Supplier<T> action) {
+        return count == 1 ? action.get() : ShardRoutingDataSource.on(shard, action);
+    }
+
+    /**
+     * Looks a user up by email on its shard, and on its previous shard while
+     * a rebalance is pending.
+     *
+     * @param normalizedEmail the email address in its stored form
+     * @param lookup          the lookup to run on each candidate shard
+     * @param <T>             the type of the result
+     * @return the first result found
+     */
+    public <T> Optional<T> findByEmail(String normalizedEmail, Supplier<Optional<T>> lookup) {
+        return find(shardsOf(normalizedEmail), lookup);
+    }
+
+    /**
+     * Looks a user up by identifier on its shard, and on its previous shard
+     * while a rebalance is pending.
+     *
+     * @param id     the identifier of the user
+     * @param lookup the lookup to run on each candidate shard
+     * @param <T>    the type of the result
+     * @return the first result found
+     */
+    public <T> Optional<T> findById(UUID id, Supplier<Optional<T>> lookup) {
+        return find(shardsOf(id), lookup);
+    }
+
+    private <T> Optional<T> find(int[] shards, Supplier<Optional<T>> lookup) {
+        Optional<T> result = Optional.empty();
+        for (int shard : shards) {
+            result = on(shard, lookup);
+            if (result.isPresent()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs an action on every shard in parallel and waits for all of them.
+     *
+     * @param action the action, given the shard it runs on
+     * @param <T>    the type of the action's result
+     * @return the result of each shard, in shard order
+     */
+    public <T> List<T> fanOut(IntFunction<T> action) {
+        if (count == 1) {
+            return Collections.singletonList(action.apply(0));
+        }
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int target = shard;
+            futures.add(fanOutExecutor.submit(() -> ShardRoutingDataSource.on(target, () -> action.apply(target))));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (Future<T> future : futures) {
+                results.add(await(future));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Merges ordered items read from every shard into a single ordered
+     * sequence.
+     * <p>
+     * Each shard is read on its own thread, at most {@value #MERGE_BUFFER}
+     * items ahead of the consumer, and the items are handed to the consumer
+     * on the calling thread. If a shard fails or the consumer throws, the
+     * other shards are interrupted and the exception is rethrown.
+     * </p>
+     *
+     * @param order    the order of the items within each shard
+     * @param producer reads the items of one shard, in order
+     * @param consumer receives every item, in order
+     * @param <T>      the type of the items
+     */
+    public <T> void forEachOrdered(Comparator<? super T> order, ShardProducer<T> producer, Consumer<? super T> consumer) {
+        if (count == 1) {
+            producer.produce(0, consumer::accept);
+            return;
+        }
+        List<BlockingQueue<Object>> queues = new ArrayList<>(count);
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>(MERGE_BUFFER);
+            queues.add(queue);
+            int target = shard;
+            futures.add(fanOutExecutor.submit(() -> produce(target, producer, queue)));
+        }
+        try {
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>(count, (a, b) -> order.compare(a.item(), b.item()));
+            for (int shard = 0; shard < count; shard++) {
+                T first = take(queues.get(shard));
+                if (first != null) {
+                    heads.add(new Head<>(first, shard));
+                }
+            }
+            while (!heads.isEmpty()) {
+                Head<T> head = heads.poll();
+                consumer.accept(head.item());
+                T next = take(queues.get(head.shard()));
+                if (next != null) {
+                    heads.add(new Head<>(next, head.shard()));
+                }
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Stops the fan-out threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    private <T> void produce(int shard, ShardProducer<T> producer, BlockingQueue<Object> queue) {
+        try {
+            ShardRoutingDataSource.on(shard, () -> {
+                producer.produce(shard, item -> {
+                    try {
+                        queue.put(item);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Merge of the shards cancelled");
+                    }
+                });
+                return null;
+            });
+            queue.put(END);
+        } catch (InterruptedException | CancellationException ex) {
+            // The consumer stopped: nobody is waiting for the rest of this shard
+        } catch (Throwable ex) {
+            if (!Thread.currentThread().isInterrupted()) {
+                queue.offer(new Failure(ex));
+            }
+        }
+    }
+
+    /**
+     * Takes the next item of a shard.
+     *
+     * @return the item, or {@code null} once the shard is exhausted
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T take(BlockingQueue<Object> queue) {
+        Object item;
+        try {
+            item = queue.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while merging the shards");
+        }
+        if (item == END) {
+            return null;
+        }
+        if (item instanceof Failure failure) {
+            throw propagate(failure.cause());
+        }
+        return (T) item;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the shards");
+        } catch (ExecutionException ex) {
+            throw propagate(ex.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): maps a key to one of
+     * {@code buckets} slots, moving only {@code 1/buckets} of the keys when a
+     * slot is added.
+     */
+    private static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
@@ -0,0 +1,36 @@
+-- Users, keyed by an application-generated UUID.
+-- Emails are stored normalized (trimmed, lower case); the check constraint
+-- guarantees it, so the unique index below is an index on the normalized email.
+CREATE TABLE users (
+    id          UUID         NOT NULL,
+    token       VARCHAR(1024),
+    name        VARCHAR(255),
+    email       VARCHAR(320) NOT NULL,
+    password    VARCHAR(255),
+    created     TIMESTAMP(6),
+    modified    TIMESTAMP(6),
+    last_login  TIMESTAMP(6),
+    is_active   BOOLEAN      NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT ck_users_email_normalized CHECK (email = LOWER(TRIM(email)))
+);
+
+CREATE UNIQUE INDEX ux_users_email ON users (email);
+
+-- Phones reference their owner directly instead of going through a join table.
+CREATE SEQUENCE phones_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE phones (
+    id            BIGINT       NOT NULL,
+    user_id       UUID         NOT NULL,
+    number        VARCHAR(32),
+    city_code     VARCHAR(8),
+    country_code  VARCHAR(8),
+    CONSTRAINT pk_phones PRIMARY KEY (id)
+);
+
+-- Created before the foreign key so the constraint reuses it instead of adding its own index.
+CREATE INDEX ix_phones_user_id ON phones (user_id);
+
+ALTER TABLE phones ADD CONSTRAINT fk_phones_user
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -0,0 +1,13 @@
+-- Events for downstream systems (transactional outbox). Each row is inserted
+-- in the same transaction as the change it describes and deleted by the
+-- outbox relay once delivered, so the table only holds undelivered events.
+CREATE SEQUENCE outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox (
+    id            BIGINT        NOT NULL,
+    aggregate_id  UUID          NOT NULL,
+    event_type    VARCHAR(64)   NOT NULL,
+    payload       VARCHAR(4096) NOT NULL,
+    created       TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT pk_outbox PRIMARY KEY (id)
+);
@@ -0,0 +1,61 @@
+package com.nisum.reactive;
+
+import com.nisum.config.ConcurrencyConfig;
+import com.nisum.config.PasswordHashingConfig;
+import com.nisum.utils.EmailValidator;
+import com.nisum.utils.ErrorResponses;
+import com.nisum.utils.IdempotencyStore;
+import com.nisum.utils.JwtUtil;
+import com.nisum.utils.MessagesHelper;
+import com.nisum.utils.PasswordHasher;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Main application class of the reactive serving mode.
+ * <p>
+ * This mode serves the registration endpoint with Spring WebFlux on Netty
+ * and stores users through R2DBC, with the same request and response
+ * contract as {@code POST /users/register} in the servlet application. It
+ * is built from its own source set ({@code src/reactive}), run with
+ * {@code ./gradlew reactiveRun} and activates the {@code reactive} profile.
+ * </p>
+ * <p>
+ * Only the packages below {@code com.nisum.reactive} are scanned: the
+ * servlet stack's controllers, services and JPA repositories are left out,
+ * and the shared components (validation, messages, password hashing,
+ * tokens, idempotency) are imported from the main classes as they are.
+ * </p>
+ *
+ * @author avasquez
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class})
+@Import({
+        EmailValidator.class,
+        MessagesHelper.class,
+        ErrorResponses.class,
+        PasswordHasher.class,
+        JwtUtil.class,
+        IdempotencyStore.class,
+        PasswordHashingConfig.class,
+        ConcurrencyConfig.class})
+public class ReactiveUserManagement {
+
+    /**
+     * Profile holding the settings of the reactive mode, see {@code application-reactive.yml}.
+     */
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveUserManagement.class);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+}
@@ -0,0 +1,36 @@
+package com.nisum.reactive.config;
+
+import com.nisum.utils.MessagesHelper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+
+/**
+ * Configuration of the language of the messages returned to clients in the
+ * reactive serving mode.
+ * <p>
+ * As in the servlet application's {@code LocaleConfig}, the language is
+ * taken from the {@code Accept-Language} header and narrowed to one of the
+ * {@link MessagesHelper#SUPPORTED_LOCALES}, Spanish by default.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+public class ReactiveLocaleConfig {
+
+    /**
+     * Resolves the language of each exchange from its {@code Accept-Language} header.
+     *
+     * @return the {@code LocaleContextResolver} bean, replacing Spring Boot's default one
+     */
+    @Bean(name = WebHttpHandlerBuilder.LOCALE_CONTEXT_RESOLVER_BEAN_NAME)
+    public LocaleContextResolver localeContextResolver() {
+        AcceptHeaderLocaleContextResolver localeContextResolver = new AcceptHeaderLocaleContextResolver();
+        localeContextResolver.setSupportedLocales(MessagesHelper.SUPPORTED_LOCALES);
+        localeContextResolver.setDefaultLocale(MessagesHelper.DEFAULT_LOCALE);
+        return localeContextResolver;
+    }
+}
@@ -0,0 +1,53 @@
+package com.nisum.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Security configuration of the reactive serving mode.
+ * <p>
+ * Only registration and metrics scraping are public, as in the servlet
+ * application; no endpoint of this mode takes a bearer token, so any other
+ * request gets a bare 401 response. No session or security context is
+ * stored between requests.
+ * </p>
+ * <p>
+ * Admission control is not applied here: this mode is meant to compare the
+ * serving stacks, and the load harness disables it in both.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    /**
+     * Configures the security filter chain of the reactive endpoints.
+     *
+     * @param http the {@code ServerHttpSecurity} object to configure security
+     * @return a {@code SecurityWebFilterChain} bean with the configured security settings
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers(HttpMethod.POST, "/users/register").permitAll()
+                        .pathMatchers("/actuator/prometheus").permitAll() // metrics scraping
+                        .anyExchange().authenticated())
+                .build();
+    }
+}
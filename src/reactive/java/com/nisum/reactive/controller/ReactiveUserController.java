@@ -0,0 +1,74 @@
+package com.nisum.reactive.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.reactive.service.ReactiveRegistrationService;
+import com.nisum.utils.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller of the reactive serving mode.
+ * <p>
+ * This controller is mapped to the "/users" URL, like the servlet
+ * application's {@code UserController}, and serves its registration
+ * endpoint with the same request, response and error contract. The other
+ * endpoints are only served by the servlet application.
+ * </p>
+ *
+ * @author avasquez
+ */
+@RestController
+@RequestMapping("/users")
+public class ReactiveUserController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    @Autowired
+    private ReactiveRegistrationService registrationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    /**
+     * Handles user registration requests.
+     * <p>
+     * With an {@code Idempotency-Key} header, a retry of the same request gets
+     * the outcome of the first one from the {@code IdempotencyStore}, as in
+     * the servlet application. A registration in progress is not cancelled
+     * when its client disconnects, so that the stored outcome is complete.
+     * </p>
+     *
+     * @param userRequestDTO the request payload containing user registration details
+     * @param idempotencyKey optional key identifying retries of the same request
+     * @return a {@code Mono} emitting the registered user's response data
+     * @throws JsonProcessingException if the request cannot be fingerprinted
+     */
+    @PostMapping("/register")
+    public Mono<ResponseEntity<UserResponseDTO>> registerUser(
+            @RequestBody UserRequestDTO userRequestDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey)
+            throws JsonProcessingException {
+        if (idempotencyKey == null) {
+            return registrationService.registerUser(userRequestDTO)
+                    .map(ResponseEntity::ok);
+        }
+        byte[] fingerprint = IdempotencyStore.fingerprint(objectMapper.writeValueAsBytes(userRequestDTO));
+        return Mono.fromFuture(() -> idempotencyStore.execute(idempotencyKey, fingerprint,
+                () -> registrationService.registerUser(userRequestDTO).map(ResponseEntity::ok).toFuture(),
+                ex -> !(ex instanceof InvalidEmailException || ex instanceof EmailAlreadyExistsException)), true);
+    }
+}
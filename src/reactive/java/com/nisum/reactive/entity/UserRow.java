@@ -0,0 +1,51 @@
+package com.nisum.reactive.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Row of the "users" table, as written by the reactive serving mode.
+ * <p>
+ * This is the R2DBC counterpart of the JPA {@code User} entity, over the
+ * same Flyway-managed schema. Phones are not mapped: Spring Data R2DBC has
+ * no associations, so they are inserted separately, in the same transaction.
+ * </p>
+ * <p>
+ * The identifier is assigned before saving (a time-ordered UUID carrying
+ * the shard bucket of the email, as in the servlet application), so the row
+ * always reports itself as new and {@code save} inserts it.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Data
+@NoArgsConstructor
+@Table("users")
+public class UserRow implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    private String token;
+    private String name;
+    private String email;
+    private String password;
+    private LocalDateTime created;
+    private LocalDateTime modified;
+    private LocalDateTime lastLogin;
+
+    @Column("is_active")
+    private boolean active;
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
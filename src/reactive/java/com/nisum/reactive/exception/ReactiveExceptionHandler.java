@@ -0,0 +1,132 @@
+package com.nisum.reactive.exception;
+
+import com.nisum.exception.BusinessException;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.exception.registration.IdempotencyKeyReusedException;
+import com.nisum.exception.registration.RegistrationBusyException;
+import com.nisum.utils.ErrorResponses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exception handler of the reactive serving mode.
+ * <p>
+ * This class answers the exceptions of the registration endpoint with the
+ * same statuses, headers and bodies as the servlet application's
+ * {@code GlobalExceptionHandler}: business exceptions get the pre-serialized
+ * body of {@link ErrorResponses} in the language of the exchange, a busy
+ * hashing pool gets a 503 with {@code Retry-After}, and every handled
+ * exception increments the {@code api.errors} counter.
+ * </p>
+ *
+ * @author avasquez
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @Value("${hashing.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ErrorResponses errorResponses;
+
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Handles InvalidEmailException and returns a 400 Bad Request response.
+     *
+     * @param ex       the exception thrown
+     * @param exchange the exchange being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(InvalidEmailException.class)
+    public ResponseEntity<byte[]> handleInvalidEmail(InvalidEmailException ex, ServerWebExchange exchange) {
+        return errorResponse(ex, HttpStatus.BAD_REQUEST, exchange);
+    }
+
+    /**
+     * Handles EmailAlreadyExistsException and returns a 409 Conflict response.
+     *
+     * @param ex       the exception thrown
+     * @param exchange the exchange being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(EmailAlreadyExistsException.class)
+    public ResponseEntity<byte[]> handleEmailAlreadyExists(EmailAlreadyExistsException ex, ServerWebExchange exchange) {
+        return errorResponse(ex, HttpStatus.CONFLICT, exchange);
+    }
+
+    /**
+     * Handles IdempotencyKeyReusedException and returns a 422 Unprocessable Entity response.
+     *
+     * @param ex       the exception thrown
+     * @param exchange the exchange being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<byte[]> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex,
+                                                             ServerWebExchange exchange) {
+        return errorResponse(ex, HttpStatus.UNPROCESSABLE_ENTITY, exchange);
+    }
+
+    /**
+     * Handles RegistrationBusyException and returns a 503 Service Unavailable response
+     * with a {@code Retry-After} header.
+     *
+     * @param ex       the exception thrown
+     * @param exchange the exchange being answered, whose language is used
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(RegistrationBusyException.class)
+    public ResponseEntity<byte[]> handleRegistrationBusy(RegistrationBusyException ex, ServerWebExchange exchange) {
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(ex.getMessageKey(), exchange.getLocaleContext().getLocale()));
+    }
+
+    /**
+     * Handles generic exceptions and returns a 500 Internal Server Error response.
+     *
+     * @param ex the exception thrown
+     * @return a ResponseEntity containing error details and HTTP status
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, String>> handleGeneralException(Exception ex) {
+        countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "An unexpected error occurred: " + ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private ResponseEntity<byte[]> errorResponse(BusinessException ex, HttpStatus status, ServerWebExchange exchange) {
+        countError(ex, status);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponses.body(ex.getMessageKey(), exchange.getLocaleContext().getLocale()));
+    }
+
+    private void countError(Exception ex, HttpStatus status) {
+        errorCounters.computeIfAbsent(ex.getClass(), type -> meterRegistry.counter("api.errors",
+                "exception", type.getSimpleName(),
+                "status", String.valueOf(status.value()))).increment();
+    }
+}
@@ -0,0 +1,27 @@
+package com.nisum.reactive.repository;
+
+import com.nisum.reactive.entity.UserRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Reactive repository of the "users" table.
+ * <p>
+ * This interface extends {@code R2dbcRepository} to provide non-blocking
+ * CRUD operations on {@code UserRow} records identified by a {@code UUID}.
+ * </p>
+ *
+ * @author avasquez
+ */
+public interface ReactiveUserRepository extends R2dbcRepository<UserRow, UUID> {
+
+    /**
+     * Checks whether a user with the given email is registered.
+     *
+     * @param email the normalized email address
+     * @return a {@code Mono} emitting {@code true} if the email is taken
+     */
+    Mono<Boolean> existsByEmail(String email);
+}
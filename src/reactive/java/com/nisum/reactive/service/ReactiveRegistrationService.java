@@ -0,0 +1,262 @@
+package com.nisum.reactive.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.entity.id.ShardBuckets;
+import com.nisum.entity.id.UuidV7Generator;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.exception.registration.RegistrationBusyException;
+import com.nisum.outbox.UserRegisteredEvent;
+import com.nisum.reactive.entity.UserRow;
+import com.nisum.reactive.repository.ReactiveUserRepository;
+import com.nisum.utils.EmailValidator;
+import com.nisum.utils.JwtUtil;
+import com.nisum.utils.PasswordHasher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+/**
+ * Service registering users in the reactive serving mode.
+ * <p>
+ * A registration follows the same steps as in the servlet application,
+ * without blocking the event loop at any of them: the email is validated
+ * and checked for duplicates, the password is hashed on the bounded hashing
+ * pool of the {@code PasswordHasher} (a full queue is answered with a
+ * {@code RegistrationBusyException}), and the user, its phones and the
+ * {@code UserRegistered} outbox event are inserted through R2DBC in one
+ * transaction. As there, uniqueness is enforced by the unique email index,
+ * the duplicate check only saves the hashing cost of obvious duplicates.
+ * </p>
+ * <p>
+ * Phone and outbox ids come from the same sequences as Hibernate's pooled-lo
+ * optimizer uses, one sequence call per block of {@value #SEQUENCE_BLOCK}
+ * ids, so both modes can write to the same database.
+ * </p>
+ * <p>
+ * The H2 R2DBC driver runs the embedded database on the calling thread, so
+ * its calls are moved to the {@code boundedElastic} scheduler: they would
+ * otherwise hold the event loop, or a hashing thread once the password is
+ * hashed. A driver with non-blocking network I/O would not need the hop.
+ * </p>
+ *
+ * @author avasquez
+ */
+@Service
+public class ReactiveRegistrationService {
+
+    private static final String EMAIL_UNIQUE_INDEX = "UX_USERS_EMAIL";
+
+    /**
+     * Increment of {@code phones_seq} and {@code outbox_seq}.
+     */
+    private static final int SEQUENCE_BLOCK = 50;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private EmailValidator emailValidator;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Password hash and token of a new user, both computed on the hashing pool.
+     */
+    private record Credentials(String encodedPassword, String token) {
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @param userRequestDTO the DTO containing user registration details
+     * @return a {@code Mono} emitting the registered user's details, or
+     * failing with an {@code InvalidEmailException}, an
+     * {@code EmailAlreadyExistsException} or a {@code RegistrationBusyException}
+     */
+    public Mono<UserResponseDTO> registerUser(UserRequestDTO userRequestDTO) {
+        return Mono.defer(() -> {
+            String email = emailValidator.normalize(userRequestDTO.getEmail());
+            if (email == null) {
+                return Mono.error(new InvalidEmailException());
+            }
+            return userRepository.existsByEmail(email)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(exists -> exists
+                            ? Mono.<Credentials>error(new EmailAlreadyExistsException())
+                            : Mono.fromFuture(() -> issueCredentials(userRequestDTO.getPassword(), email)))
+                    .publishOn(Schedulers.boundedElastic())
+                    .flatMap(credentials -> insertUser(userRequestDTO, email, credentials));
+        });
+    }
+
+    /**
+     * Hashes the password on the hashing pool, then signs the token on the
+     * same thread. Both are bounded by the pool size, so no
+     * {@code cpuBulkhead} permit is taken.
+     *
+     * @param rawPassword the password to hash
+     * @param email       the subject of the token
+     * @return a future completed with the credentials of the new user
+     * @throws RegistrationBusyException if the hashing queue is full
+     */
+    private CompletableFuture<Credentials> issueCredentials(String rawPassword, String email) {
+        return passwordHasher.encodeAsync(rawPassword)
+                .thenApply(encodedPassword -> new Credentials(encodedPassword, jwtUtil.generateToken(email)));
+    }
+
+    /**
+     * Inserts the user, its phones and its outbox event in one transaction.
+     *
+     * @param userRequestDTO the DTO containing user registration details
+     * @param email          the normalized email address
+     * @param credentials    the password hash and token of the user
+     * @return a {@code Mono} emitting the saved user's details
+     */
+    private Mono<UserResponseDTO> insertUser(UserRequestDTO userRequestDTO, String email, Credentials credentials) {
+        LocalDateTime dateTime = LocalDateTime.now();
+        UserRow user = new UserRow();
+        user.setId(UuidV7Generator.next(ShardBuckets.of(email)));
+        user.setName(userRequestDTO.getName());
+        user.setEmail(email);
+        user.setPassword(credentials.encodedPassword());
+        user.setToken(credentials.token());
+        user.setCreated(dateTime);
+        user.setModified(dateTime);
+        user.setLastLogin(dateTime);
+        user.setActive(true);
+        List<PhoneDTO> phones = userRequestDTO.getPhones() == null ? List.of() : userRequestDTO.getPhones();
+
+        return userRepository.save(user)
+                .then(insertPhones(user.getId(), phones))
+                .then(insertOutboxEvent(user))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(ReactiveRegistrationService::isEmailUniqueViolation,
+                        ex -> new EmailAlreadyExistsException())
+                .thenReturn(convertToUserResponseDTO(user, phones));
+    }
+
+    private Mono<Void> insertPhones(UUID userId, List<PhoneDTO> phones) {
+        if (phones.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(phones)
+                .zipWith(nextIds("phones_seq", phones.size()))
+                .concatMap(phone -> bind(databaseClient.sql("""
+                                INSERT INTO phones (id, user_id, number, city_code, country_code)
+                                VALUES (:id, :userId, :number, :cityCode, :countryCode)""")
+                        .bind("id", phone.getT2())
+                        .bind("userId", userId), phone.getT1())
+                        .then())
+                .then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, PhoneDTO phone) {
+        spec = bindNullable(spec, "number", phone.getNumber());
+        spec = bindNullable(spec, "cityCode", phone.getCitycode());
+        return bindNullable(spec, "countryCode", phone.getCountrycode());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private Mono<Void> insertOutboxEvent(UserRow user) {
+        return nextIds("outbox_seq", 1).next()
+                .flatMap(id -> databaseClient.sql("""
+                                INSERT INTO outbox (id, aggregate_id, event_type, payload, created)
+                                VALUES (:id, :aggregateId, :eventType, :payload, :created)""")
+                        .bind("id", id)
+                        .bind("aggregateId", user.getId())
+                        .bind("eventType", UserRegisteredEvent.TYPE)
+                        .bind("payload", toJson(new UserRegisteredEvent(user.getId(), user.getName(),
+                                user.getEmail(), user.getCreated())))
+                        .bind("created", user.getCreated())
+                        .then());
+    }
+
+    /**
+     * Allocates ids from a sequence the way Hibernate's pooled-lo optimizer
+     * does: each value fetched is the first of a block of
+     * {@value #SEQUENCE_BLOCK} ids.
+     *
+     * @param sequence the sequence to read
+     * @param count    the number of ids needed
+     * @return a {@code Flux} of {@code count} unused ids
+     */
+    private Flux<Long> nextIds(String sequence, int count) {
+        return Flux.range(0, (count + SEQUENCE_BLOCK - 1) / SEQUENCE_BLOCK)
+                .concatMap(block -> databaseClient.sql("SELECT NEXT VALUE FOR " + sequence)
+                        .map(row -> row.get(0, Long.class))
+                        .one())
+                .concatMapIterable(low -> LongStream.range(low, low + SEQUENCE_BLOCK).boxed().toList())
+                .take(count);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize the outbox payload " + payload, ex);
+        }
+    }
+
+    /**
+     * Tells whether an error was caused by the unique email index.
+     *
+     * @param ex the error raised by the insert
+     * @return {@code true} if the email was already taken
+     */
+    private static boolean isEmailUniqueViolation(Throwable ex) {
+        if (!(ex instanceof DataIntegrityViolationException violation)) {
+            return false;
+        }
+        String message = violation.getMostSpecificCause().getMessage();
+        return message != null && message.toUpperCase(Locale.ROOT).contains(EMAIL_UNIQUE_INDEX);
+    }
+
+    private static UserResponseDTO convertToUserResponseDTO(UserRow user, List<PhoneDTO> phones) {
+        UserResponseDTO userResponseDTO = new UserResponseDTO();
+        userResponseDTO.setId(user.getId());
+        userResponseDTO.setName(user.getName());
+        userResponseDTO.setEmail(user.getEmail());
+        userResponseDTO.setEncryptedPassword(user.getPassword());
+        userResponseDTO.setCreated(user.getCreated());
+        userResponseDTO.setModified(user.getModified());
+        userResponseDTO.setLastLogin(user.getLastLogin());
+        userResponseDTO.setActive(user.isActive());
+        userResponseDTO.setPhones(phones);
+        userResponseDTO.setToken(user.getToken());
+        return userResponseDTO;
+    }
+}
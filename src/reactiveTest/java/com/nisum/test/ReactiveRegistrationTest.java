@@ -0,0 +1,156 @@
+package com.nisum.test;
+
+import com.nisum.reactive.ReactiveUserManagement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the registration endpoint of the reactive serving mode
+ * over HTTP, on Netty and R2DBC. It checks that the mode keeps the contract
+ * of the servlet application: the response of a registration, the error
+ * statuses and translated messages, and idempotent retries.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(classes = ReactiveUserManagement.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveUserManagement.PROFILE)
+class ReactiveRegistrationTest {
+
+    private static final String REQUEST = "{\"name\":\"Reactive User\",\"email\":\"reactive@example.com\","
+            + "\"password\":\"password123\",\"phones\":[{\"number\":\"1234567\",\"citycode\":\"1\",\"countrycode\":\"57\"}]}";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM outbox").then().block();
+        databaseClient.sql("DELETE FROM users").then().block();
+    }
+
+    /**
+     * Test case for a successful registration. It verifies the response
+     * fields, and that the user, its phone and its outbox event are stored.
+     */
+    @Test
+    void testRegisterUser_Success() {
+        register(REQUEST.replace("reactive@example.com", " Reactive@Example.com "))
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.email").isEqualTo("reactive@example.com")
+                .jsonPath("$.token").isNotEmpty()
+                .jsonPath("$.active").isEqualTo(true)
+                .jsonPath("$.phones[0].number").isEqualTo("1234567")
+                .jsonPath("$.encryptedPassword").value(password -> assertTrue(((String) password).startsWith("{bcrypt}")));
+
+        assertEquals(1L, count("users"));
+        assertEquals(1L, count("phones"));
+        assertEquals(1L, count("outbox"));
+    }
+
+    /**
+     * Test case for an invalid email. It verifies the 400 response and its
+     * message, in Spanish by default and in English when asked for.
+     */
+    @Test
+    void testRegisterUser_InvalidEmail() {
+        String invalid = REQUEST.replace("reactive@example.com", "invalid-email");
+        register(invalid)
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Formato de correo inválido");
+        webTestClient.post().uri("/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "en-US")
+                .bodyValue(invalid)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Invalid email format");
+        assertEquals(0L, count("users"));
+    }
+
+    /**
+     * Test case for an email already registered. It verifies the 409
+     * response and that no second user is stored.
+     */
+    @Test
+    void testRegisterUser_EmailAlreadyExists() {
+        register(REQUEST).expectStatus().isOk();
+        register(REQUEST)
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").isEqualTo("El correo ya fue registrado");
+        assertEquals(1L, count("users"));
+    }
+
+    /**
+     * Test case for a retried registration with an {@code Idempotency-Key}.
+     * It verifies that the retry gets the first response instead of a 409,
+     * and that the same key with another request is rejected with 422.
+     */
+    @Test
+    void testRegisterUser_RetryReplaysFirstResponse() {
+        String first = registerWithKey("reactive-key-1", REQUEST);
+        String retry = registerWithKey("reactive-key-1", REQUEST);
+
+        assertEquals(first, retry);
+        assertEquals(1L, count("users"));
+
+        webTestClient.post().uri("/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "reactive-key-1")
+                .bodyValue(REQUEST.replace("Reactive User", "Other User"))
+                .exchange()
+                .expectStatus().isEqualTo(422);
+    }
+
+    /**
+     * Test case for an endpoint that is not public. It verifies the bare 401 response.
+     */
+    @Test
+    void testProtectedEndpoint_Unauthorized() {
+        webTestClient.get().uri("/users/export")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private WebTestClient.ResponseSpec register(String body) {
+        return webTestClient.post().uri("/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+
+    private String registerWithKey(String key, String body) {
+        return webTestClient.post().uri("/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", key)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private long count(String table) {
+        return databaseClient.sql("SELECT COUNT(*) FROM " + table)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+}
@@ -0,0 +1,168 @@
+package com.nisum.test;
+
+import com.nisum.repository.UserRepository;
+import com.nisum.utils.StripedTokenBucket;
+import com.nisum.utils.TokenBucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests admission control: token buckets admit exactly their
+ * capacity and refill at their rate, and a client exceeding its rate is
+ * rejected with 429 without affecting other clients.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {"admission.client.rate-per-second=0.01", "admission.client.burst=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdmissionControlTest {
+
+    private static final String WRONG_CREDENTIALS = "{\"email\":\"nobody@example.com\",\"password\":\"password123\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for the token bucket. It verifies that a full bucket admits a
+     * burst of its capacity, then one request per refill interval, and tells
+     * how long to wait when empty.
+     */
+    @Test
+    void testTokenBucket_BurstThenRate() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        long start = 0;
+        AtomicLong state = bucket.newState(start);
+
+        assertEquals(0, bucket.tryTake(state, start));
+        assertEquals(0, bucket.tryTake(state, start));
+        long wait = bucket.tryTake(state, start);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        assertEquals(0, bucket.tryTake(state, start + wait));
+        assertTrue(bucket.tryTake(state, start + wait) > 0);
+    }
+
+    /**
+     * Test case for the striped bucket under contention. It verifies that
+     * thousands of concurrent callers take exactly its capacity.
+     */
+    @Test
+    void testStripedTokenBucket_AdmitsCapacity() throws Exception {
+        StripedTokenBucket bucket = new StripedTokenBucket(0.001, 100, 8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 5_000; i++) {
+                results.add(threads.submit(() -> bucket.tryTake(System.nanoTime()) == 0));
+            }
+        }
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                admitted++;
+            }
+        }
+        assertEquals(100, admitted);
+    }
+
+    /**
+     * Test case for the filter. It verifies that a client is rejected with 429
+     * and {@code Retry-After} once its burst is spent, while another client
+     * is still admitted and unprotected endpoints are not limited.
+     */
+    @Test
+    void testFilter_RejectsFloodingClientOnly() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(login("203.0.113.7")).andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(login("203.0.113.7"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.error").value("Demasiadas solicitudes, intente nuevamente en unos segundos"));
+
+        mockMvc.perform(login("198.51.100.20")).andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test case for the batch endpoint. It verifies that every user of a
+     * batch costs a token: a batch larger than the client's burst is
+     * rejected with 429 as a whole, while a batch within it is registered.
+     */
+    @Test
+    void testBatch_ChargesOneTokenPerUser() throws Exception {
+        mockMvc.perform(batch("203.0.113.50", 3))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, userRepository.count());
+
+        MvcResult result = mockMvc.perform(batch("198.51.100.30", 2))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, body.lines().filter(line -> line.contains("\"CREATED\"")).count());
+        assertEquals(2, userRepository.count());
+    }
+
+    private MockHttpServletRequestBuilder batch(String clientAddress, int users) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < users; i++) {
+            body.append("{\"name\":\"Batch User\",\"email\":\"batch").append(i).append('.')
+                    .append(clientAddress).append("@example.com\",\"password\":\"password123\"}\n");
+        }
+        return post("/users/register/batch")
+                .contentType("application/x-ndjson")
+                .content(body.toString())
+                .with(request -> {
+                    request.setRemoteAddr(clientAddress);
+                    return request;
+                });
+    }
+
+    private MockHttpServletRequestBuilder login(String clientAddress) {
+        return post("/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(WRONG_CREDENTIALS)
+                .with(request -> {
+                    request.setRemoteAddr(clientAddress);
+                    return request;
+                });
+    }
+}
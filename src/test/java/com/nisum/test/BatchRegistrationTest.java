@@ -0,0 +1,181 @@
+package com.nisum.test;
+
+import com.nisum.controller.UserController;
+import com.nisum.dto.registration.BatchRegistrationResultDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO.Status;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.entity.User;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.MessagesHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests batch user registration through the service layer,
+ * covering created users, invalid emails, duplicates inside the batch and
+ * duplicates of already registered users, and the streamed response of
+ * the endpoint: the language of its item errors, its flushes and a body
+ * turning malformed.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchRegistrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for a mixed batch. It verifies that every item gets exactly one
+     * result, in input order, and that only the valid new users are saved.
+     */
+    @Test
+    void testRegisterUsersBatch_MixedResults() {
+        User existingUser = new User();
+        existingUser.setEmail("existing@example.com");
+        existingUser.setPassword("password123");
+        userRepository.save(existingUser);
+
+        List<UserRequestDTO> requests = List.of(
+                request("first@example.com"),
+                request("invalid-email"),
+                request("existing@example.com"),
+                request("second@example.com"),
+                request("first@example.com"));
+
+        List<BatchRegistrationResultDTO> results = new ArrayList<>();
+        userService.registerUsersBatch(requests.iterator(), MessagesHelper.DEFAULT_LOCALE, results::add);
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertEquals(Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(Status.INVALID_EMAIL, results.get(1).getStatus());
+        assertEquals(Status.EMAIL_ALREADY_REGISTERED, results.get(2).getStatus());
+        assertEquals(Status.CREATED, results.get(3).getStatus());
+        assertEquals(Status.EMAIL_ALREADY_REGISTERED, results.get(4).getStatus());
+        assertEquals("Formato de correo inválido", results.get(1).getError());
+
+        assertEquals(3, userRepository.count());
+        assertTrue(userRepository.findByEmail("second@example.com").isPresent());
+    }
+
+    /**
+     * Test case for the language of the item errors over HTTP. It verifies
+     * that they follow the {@code Accept-Language} header of the request.
+     */
+    @Test
+    void testRegisterUsersBatch_ErrorsInRequestLanguage() throws Exception {
+        MvcResult started = mockMvc.perform(post("/users/register/batch")
+                        .contentType("application/x-ndjson")
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "en-US")
+                        .content("{\"name\":\"Batch User\",\"email\":\"invalid-email\",\"password\":\"password123\"}\n"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        BatchRegistrationResultDTO result = objectMapper.readValue(body.trim(), BatchRegistrationResultDTO.class);
+        assertEquals(Status.INVALID_EMAIL, result.getStatus());
+        assertEquals("Invalid email format", result.getError());
+    }
+
+    /**
+     * Test case for a body turning malformed after the first chunk. It
+     * verifies that the response is flushed after each chunk and ends with
+     * an {@code INVALID_REQUEST} line at the position of the malformed user.
+     */
+    @Test
+    void testRegisterUsersBatch_MalformedAfterFirstChunk() throws Exception {
+        Object serviceTarget = AopTestUtils.getUltimateTargetObject(userService);
+        Object chunkSize = ReflectionTestUtils.getField(userController, "batchChunkSize");
+        ReflectionTestUtils.setField(userController, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(serviceTarget, "batchChunkSize", 2);
+        try {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/register/batch");
+            request.setRemoteAddr("192.0.2.20");
+            request.setContent("""
+                    {"name":"Batch User","email":"first@example.com","password":"password123"}
+                    {"name":"Batch User","email":"second@example.com","password":"password123"}
+                    {"name":"Batch User","email":"third@example.com","password":"password123"}
+                    {"name":"Batch User","email":
+                    """.getBytes(StandardCharsets.UTF_8));
+            List<String> flushed = new ArrayList<>();
+            ByteArrayOutputStream out = new ByteArrayOutputStream() {
+                @Override
+                public void flush() {
+                    flushed.add(toString(StandardCharsets.UTF_8));
+                }
+            };
+            userController.registerUsersBatch(request).getBody().writeTo(out);
+
+            assertEquals(2, flushed.get(0).lines().count());
+            List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+            assertEquals(4, lines.size());
+            BatchRegistrationResultDTO last = objectMapper.readValue(lines.get(3), BatchRegistrationResultDTO.class);
+            assertEquals(3, last.getIndex());
+            assertEquals(Status.INVALID_REQUEST, last.getStatus());
+            assertEquals("La solicitud está incompleta o es inválida", last.getError());
+            assertEquals(3, userRepository.count());
+        } finally {
+            ReflectionTestUtils.setField(userController, "batchChunkSize", chunkSize);
+            ReflectionTestUtils.setField(serviceTarget, "batchChunkSize", chunkSize);
+        }
+    }
+
+    private UserRequestDTO request(String email) {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Batch User");
+        userRequestDTO.setEmail(email);
+        userRequestDTO.setPassword("password123");
+        return userRequestDTO;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests that registration stays correct under concurrency: many
+ * simultaneous registrations of the same email must produce exactly one user,
+ * with every other attempt rejected as a duplicate.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = "hashing.pool.queue-capacity=1000")
+@ActiveProfiles("test")
+class ConcurrentRegistrationTest {
+
+    private static final int ATTEMPTS = 300;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for parallel duplicate registrations. It verifies that exactly
+     * one registration succeeds and all others fail with EmailAlreadyExistsException.
+     */
+    @Test
+    void testRegisterUser_ParallelDuplicates() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(64)) {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(clients.submit(() -> {
+                    UserRequestDTO userRequestDTO = new UserRequestDTO();
+                    userRequestDTO.setName("Race User");
+                    userRequestDTO.setEmail("race@example.com");
+                    userRequestDTO.setPassword("password123");
+                    start.await();
+                    try {
+                        userService.registerUser(userRequestDTO);
+                        created.incrementAndGet();
+                    } catch (EmailAlreadyExistsException ex) {
+                        duplicates.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(ATTEMPTS - 1, duplicates.get());
+        assertEquals(1, userRepository.count());
+    }
+}
@@ -0,0 +1,145 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.entity.User;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.EmailExistenceFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.EndpointId;
+import org.springframework.boot.actuate.endpoint.web.PathMappedEndpoints;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * This class tests the email existence filter against the database: an
+ * email the filter rules out is registered without a duplicate lookup, and
+ * a rebuild does not lose an email whose transaction was still open while
+ * it read the {@code users} table, and the rebuild is exposed over JMX only.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = "spring.jmx.enabled=true") // disabled in tests unless set
+@ActiveProfiles("test")
+class EmailExistenceFilterTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PathMappedEndpoints pathMappedEndpoints;
+
+    /**
+     * Setup method to clear the database and the filter before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        emailExistenceFilter.rebuild();
+    }
+
+    /**
+     * Test case for the duplicate check. It verifies that a new email, ruled
+     * out by the filter, is registered without looking it up, and that the
+     * same email registered again is looked up and rejected.
+     */
+    @Test
+    void testRegisterUser_FilterSkipsLookup() {
+        // A delegating mock is swapped in by hand: the AOT test processing does not support @SpyBean
+        Object target = AopTestUtils.getUltimateTargetObject(userService);
+        UserRepository repository = mock(UserRepository.class, delegatesTo(userRepository));
+        ReflectionTestUtils.setField(target, "userRepository", repository);
+        try {
+            assertFalse(emailExistenceFilter.mightContain("filtered@example.com"));
+            userService.registerUser(request("filtered@example.com"));
+            verify(repository, never()).findByEmail(anyString());
+
+            assertThrows(EmailAlreadyExistsException.class,
+                    () -> userService.registerUser(request("filtered@example.com")));
+            verify(repository, times(1)).findByEmail("filtered@example.com");
+        } finally {
+            ReflectionTestUtils.setField(target, "userRepository", userRepository);
+        }
+        assertEquals(1, userRepository.count());
+    }
+
+    /**
+     * Test case for a rebuild running while a user is being saved. The user
+     * is flushed, the filter is rebuilt from the committed rows only, then
+     * the transaction commits. It verifies that the rebuilt filter still
+     * holds the email.
+     */
+    @Test
+    void testRebuild_KeepsEmailCommittedMeanwhile() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.saveAndFlush(user("inflight@example.com"));
+            CompletableFuture.runAsync(emailExistenceFilter::rebuild).join();
+        });
+
+        assertEquals(1, userRepository.count());
+        assertTrue(emailExistenceFilter.mightContain("inflight@example.com"));
+    }
+
+    /**
+     * Test case for the exposure of the email filter endpoint. It verifies
+     * that it has no HTTP path, while its MBean is registered.
+     */
+    @Test
+    void testEndpoint_JmxOnly() throws Exception {
+        assertNull(pathMappedEndpoints.getPath(EndpointId.of("emailfilter")));
+
+        Set<ObjectName> mbeans = ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName("org.springframework.boot:type=Endpoint,name=Emailfilter,*"), null);
+        assertFalse(mbeans.isEmpty());
+    }
+
+    private static UserRequestDTO request(String email) {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Filtered User");
+        userRequestDTO.setEmail(email);
+        userRequestDTO.setPassword("password123");
+        userRequestDTO.setPhones(new ArrayList<>());
+        return userRequestDTO;
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("In-flight User");
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setCreated(LocalDateTime.now());
+        user.setActive(true);
+        user.setPhones(new ArrayList<>());
+        return user;
+    }
+}
@@ -0,0 +1,83 @@
+package com.nisum.test;
+
+import com.nisum.utils.EmailValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the email validator: the single-pass scanner must accept
+ * exactly what {@code regex.email} accepts, normalize accepted addresses and
+ * take time linear in the input length, even for adversarial inputs.
+ *
+ * @author avasquez
+ */
+class EmailValidatorTest {
+
+    private final EmailValidator emailValidator = new EmailValidator(EmailValidator.DEFAULT_EMAIL_REGEX);
+
+    /**
+     * Test case for normalization. It verifies that valid addresses come back
+     * trimmed and in lower case, and that already normalized ones are returned as is.
+     */
+    @Test
+    void testNormalize_TrimsAndLowerCases() {
+        assertEquals("john.doe@example.com", emailValidator.normalize("  John.Doe@Example.COM "));
+        String normalized = "john.doe@example.com";
+        assertSame(normalized, emailValidator.normalize(normalized));
+        assertNull(emailValidator.normalize("invalid-email"));
+        assertNull(emailValidator.normalize(null));
+    }
+
+    /**
+     * Test case for equivalence with the configured regex. It verifies on a
+     * large set of random addresses built from the relevant characters that
+     * the scanner and the regex always agree.
+     */
+    @Test
+    void testNormalize_MatchesRegexSemantics() {
+        Pattern pattern = Pattern.compile(EmailValidator.DEFAULT_EMAIL_REGEX);
+        String alphabet = "aZ9._%+-@@..!  ";
+        Random random = new Random(42);
+        for (int n = 0; n < 200_000; n++) {
+            StringBuilder email = new StringBuilder();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                email.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String candidate = email.toString();
+            boolean expected = pattern.matcher(candidate.trim().toLowerCase(Locale.ROOT)).matches();
+            assertEquals(expected, emailValidator.isValid(candidate), candidate);
+        }
+    }
+
+    /**
+     * Test case for pathological inputs. It verifies that validating an input
+     * ten times longer takes roughly ten times longer, not quadratically more.
+     */
+    @Test
+    void testNormalize_LinearTimeOnPathologicalInput() {
+        long small = bestTime(pathological(100_000));
+        long large = bestTime(pathological(1_000_000));
+        assertTrue(large < small * 40 + 5_000_000, "100k: " + small + " ns, 1M: " + large + " ns");
+    }
+
+    private static String pathological(int length) {
+        // Long run of domain labels that only fails at the very last character
+        return "a@" + "a.".repeat(length / 2) + "a1";
+    }
+
+    private long bestTime(String input) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            assertNull(emailValidator.normalize(input));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
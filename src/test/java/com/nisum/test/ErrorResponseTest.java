@@ -0,0 +1,111 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.exception.email.InvalidEmailException;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.ErrorResponses;
+import com.nisum.utils.MessagesHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests the error path of expected business failures: the
+ * exceptions carry no stack trace, and their responses are pre-serialized
+ * bodies in the language asked for by {@code Accept-Language}.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ErrorResponseTest {
+
+    private static final String INVALID_EMAIL_REQUEST =
+            "{\"name\":\"Error User\",\"email\":\"not-an-email\",\"password\":\"password123\",\"phones\":[]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ErrorResponses errorResponses;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for the business exceptions. It verifies that an invalid
+     * email is reported without stack trace and with its message key.
+     */
+    @Test
+    void testInvalidEmail_IsStackless() {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Error User");
+        userRequestDTO.setEmail("not-an-email");
+        userRequestDTO.setPassword("password123");
+
+        InvalidEmailException ex = assertThrows(InvalidEmailException.class,
+                () -> userService.registerUser(userRequestDTO));
+
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals("email.invalid", ex.getMessageKey());
+    }
+
+    /**
+     * Test case for the language of error responses. It verifies that the
+     * message is in Spanish by default and for unsupported languages, in
+     * English when asked for, and that each body is serialized only once.
+     */
+    @Test
+    void testErrorResponse_HonorsAcceptLanguage() throws Exception {
+        mockMvc.perform(post("/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(INVALID_EMAIL_REQUEST))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Formato de correo inválido"));
+        mockMvc.perform(post("/users/register")
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "en-US,en;q=0.9")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(INVALID_EMAIL_REQUEST))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid email format"));
+        mockMvc.perform(post("/users/register")
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "fr-FR")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(INVALID_EMAIL_REQUEST))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Formato de correo inválido"));
+
+        assertSame(errorResponses.body("email.invalid", Locale.ENGLISH),
+                errorResponses.body("email.invalid", Locale.ENGLISH));
+        assertNotSame(errorResponses.body("email.invalid", Locale.ENGLISH),
+                errorResponses.body("email.invalid", MessagesHelper.DEFAULT_LOCALE));
+    }
+}
@@ -0,0 +1,102 @@
+package com.nisum.test;
+
+import com.nisum.utils.Hs256TokenEngine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests that the HS256 token engine is a drop-in replacement for
+ * the jjwt builder: for the same claims it must produce byte-for-byte the
+ * same token, and jjwt must accept its tokens.
+ *
+ * @author avasquez
+ */
+class Hs256TokenEngineTest {
+
+    private static final String SECRET = "f37c75591c6ca2e8ee650f09f275086ec822986ac19f4d69a812c2e3c199065f";
+
+    private final Hs256TokenEngine tokenEngine = new Hs256TokenEngine(SECRET);
+
+    /**
+     * Test case for byte compatibility. It verifies that subjects needing
+     * escaping or multi-byte encoding produce the same token as jjwt.
+     */
+    @Test
+    void testGenerate_MatchesJjwt() {
+        long issuedAt = 1_700_000_123_456L;
+        long expiration = issuedAt + 720L * 60 * 60 * 1000;
+        String[] subjects = {
+                "john.doe@example.com",
+                "a",
+                "quote\"back\\slash/slash",
+                "tab\tnew\nline\u0001",
+                "ñandú@correo.ec",
+                "emoji😀@example.com",
+                "x".repeat(300)
+        };
+        for (String subject : subjects) {
+            String expected = Jwts.builder()
+                    .setSubject(subject)
+                    .setIssuedAt(new Date(issuedAt))
+                    .setExpiration(new Date(expiration))
+                    .signWith(SignatureAlgorithm.HS256, SECRET)
+                    .compact();
+            assertEquals(expected, tokenEngine.generate(subject, issuedAt, expiration), subject);
+        }
+    }
+
+    /**
+     * Test case for verification by jjwt. It verifies that a freshly generated
+     * token parses with the same secret and carries the expected claims.
+     */
+    @Test
+    void testGenerate_ParsesWithJjwt() {
+        long now = System.currentTimeMillis();
+        String token = tokenEngine.generate("john.doe@example.com", now, now + 3_600_000L);
+
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(io.jsonwebtoken.io.Decoders.BASE64.decode(SECRET))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        assertEquals("john.doe@example.com", claims.getSubject());
+        assertEquals(now / 1000, claims.getIssuedAt().getTime() / 1000);
+        assertEquals((now + 3_600_000L) / 1000, claims.getExpiration().getTime() / 1000);
+    }
+
+    /**
+     * Test case for concurrent use. It verifies that many more virtual
+     * threads than pooled buffers sign and verify at once without mixing
+     * up their tokens.
+     */
+    @Test
+    void testGenerate_ConcurrentVirtualThreads() throws Exception {
+        long issuedAt = 1_700_000_123_456L;
+        List<Future<String>> tokens = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                String subject = "user" + i + "@example.com";
+                tokens.add(executor.submit(() -> {
+                    String token = tokenEngine.generate(subject, issuedAt, issuedAt + 1000);
+                    assertNotNull(tokenEngine.verify(token));
+                    return token;
+                }));
+            }
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(tokenEngine.generate("user" + i + "@example.com", issuedAt, issuedAt + 1000),
+                    tokens.get(i).get());
+        }
+    }
+}
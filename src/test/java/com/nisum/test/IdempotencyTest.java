@@ -0,0 +1,143 @@
+package com.nisum.test;
+
+import com.nisum.exception.registration.IdempotencyKeyReusedException;
+import com.nisum.exception.registration.RegistrationBusyException;
+import com.nisum.repository.UserRepository;
+import com.nisum.utils.IdempotencyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests idempotent registrations: retries carrying the same
+ * {@code Idempotency-Key} replay the first outcome, concurrent duplicates
+ * share a single execution, and transient failures are not kept.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTest {
+
+    private static final String REQUEST =
+            "{\"name\":\"Retry User\",\"email\":\"retry@example.com\",\"password\":\"password123\",\"phones\":[]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for a retried registration. It verifies that the retry gets
+     * the first response instead of a 409, that the user is registered once,
+     * and that the same key with another request is rejected with 422.
+     */
+    @Test
+    void testRegisterUser_RetryReplaysFirstResponse() throws Exception {
+        String first = register("key-1", REQUEST).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String retry = register("key-1", REQUEST).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(first, retry);
+        assertEquals(1, userRepository.count());
+
+        register("key-2", REQUEST).andExpect(status().isConflict());
+        mockMvc.perform(post("/users/register")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(REQUEST.replace("Retry User", "Other User")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    /**
+     * Test case for a stored client error. It verifies that a rejected
+     * request is replayed with the same error.
+     */
+    @Test
+    void testRegisterUser_ReplaysClientError() throws Exception {
+        String invalid = REQUEST.replace("retry@example.com", "invalid-email");
+        register("key-3", invalid).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Formato de correo inválido"));
+        register("key-3", invalid).andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test case for the store. It verifies that concurrent duplicates run the
+     * action once and share its result, and that a retryable failure is not
+     * kept, so the next request runs the action again.
+     */
+    @Test
+    void testExecute_ConcurrentDuplicatesRunOnce() throws Exception {
+        byte[] fingerprint = IdempotencyStore.fingerprint(new byte[]{1});
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        List<Future<CompletableFuture<String>>> outcomes = new ArrayList<>();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                outcomes.add(threads.submit(() -> idempotencyStore.execute("concurrent", fingerprint, () -> {
+                    runs.incrementAndGet();
+                    return slow;
+                }, ex -> false)));
+            }
+        }
+        slow.complete("done");
+        for (Future<CompletableFuture<String>> outcome : outcomes) {
+            assertEquals("done", outcome.get().join());
+        }
+        assertEquals(1, runs.get());
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyStore.execute(
+                "concurrent", IdempotencyStore.fingerprint(new byte[]{2}), () -> slow, ex -> false));
+
+        CompletableFuture<String> busy = idempotencyStore.execute("transient", fingerprint, () -> {
+            throw new RegistrationBusyException();
+        }, ex -> ex instanceof RegistrationBusyException);
+        assertTrue(busy.isCompletedExceptionally());
+        assertEquals("ok", idempotencyStore.execute("transient", fingerprint,
+                () -> CompletableFuture.completedFuture("ok"), ex -> false).join());
+    }
+
+    private ResultActions register(String key, String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/users/register")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
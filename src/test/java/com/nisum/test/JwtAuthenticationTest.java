@@ -0,0 +1,86 @@
+package com.nisum.test;
+
+import com.nisum.security.VerifiedTokenCache;
+import com.nisum.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests bearer token authentication on a protected endpoint:
+ * requests without a valid token are rejected with 401, and valid tokens are
+ * verified once and then served from the verified-token cache.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationTest {
+
+    private static final String PROTECTED_URL = "/actuator/health";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Test case for a missing token. It verifies that the request is rejected
+     * with 401 instead of being redirected to a login page.
+     */
+    @Test
+    void testAuthenticate_MissingToken() throws Exception {
+        mockMvc.perform(get(PROTECTED_URL))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test case for a valid token. It verifies that the request is authenticated
+     * and that the second request with the same token is a cache hit.
+     */
+    @Test
+    void testAuthenticate_ValidTokenIsCached() throws Exception {
+        String token = jwtUtil.generateToken("cached.user@example.com");
+        long hitsBefore = verifiedTokenCache.getCache().stats().hitCount();
+
+        mockMvc.perform(get(PROTECTED_URL).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(PROTECTED_URL).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertEquals(hitsBefore + 1, verifiedTokenCache.getCache().stats().hitCount());
+    }
+
+    /**
+     * Test case for forged tokens. It verifies that a token with a tampered
+     * payload or signature, or that is not a JWT at all, is rejected with 401.
+     */
+    @Test
+    void testAuthenticate_TamperedToken() throws Exception {
+        String token = jwtUtil.generateToken("john.doe@example.com");
+        String forgedPayload = jwtUtil.generateToken("mallory@example.com").split("\\.")[1];
+        String[] parts = token.split("\\.");
+        String[] forgedTokens = {
+                parts[0] + "." + forgedPayload + "." + parts[2],
+                parts[0] + "." + parts[1] + "." + (parts[2].charAt(0) == 'A' ? 'B' : 'A') + parts[2].substring(1),
+                "not-a-token"
+        };
+        for (String forged : forgedTokens) {
+            mockMvc.perform(get(PROTECTED_URL).header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+                    .andExpect(status().isUnauthorized());
+        }
+    }
+}
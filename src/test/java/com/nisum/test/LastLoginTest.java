@@ -0,0 +1,152 @@
+package com.nisum.test;
+
+import com.nisum.ApiUserManagement;
+import com.nisum.dto.login.LoginRequestDTO;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.LastLoginRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the write-behind of login timestamps: logins are buffered
+ * and coalesced per user, and written to {@code lastLogin} only when the
+ * buffer is flushed, explicitly or when the application shuts down. The
+ * periodic flush is pushed out of the way so that the tests flush explicitly.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = "users.last-login.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+class LastLoginTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    /**
+     * Setup method to clear the database and the buffer before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        lastLoginRecorder.flush();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for a login. It verifies that the stored {@code lastLogin} is
+     * not touched by the login itself and is updated by the next flush.
+     */
+    @Test
+    void testLogin_LastLoginWrittenOnFlush() {
+        UserResponseDTO registered = register("lastlogin@example.com");
+        LocalDateTime registeredAt = userRepository.findById(registered.getId()).orElseThrow().getLastLogin();
+
+        LocalDateTime loginAt = userService.login(credentials("lastlogin@example.com")).getLastLogin();
+
+        assertEquals(registeredAt, userRepository.findById(registered.getId()).orElseThrow().getLastLogin());
+        assertEquals(1, lastLoginRecorder.getPendingCount());
+
+        lastLoginRecorder.flush();
+
+        assertEquals(0, lastLoginRecorder.getPendingCount());
+        assertEquals(loginAt, userRepository.findById(registered.getId()).orElseThrow().getLastLogin());
+        assertEquals(loginAt, userService.getUser(registered.getId()).getLastLogin());
+    }
+
+    /**
+     * Test case for concurrent logins. It verifies that many logins of a few
+     * users coalesce into one pending entry per user, holding the latest
+     * timestamp, and that an older timestamp never overwrites a newer one.
+     */
+    @Test
+    void testRecord_CoalescesPerUser() throws Exception {
+        UUID first = register("first@example.com").getId();
+        UUID second = register("second@example.com").getId();
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 1; i <= 1_000; i++) {
+                LocalDateTime loginAt = base.plusSeconds(i);
+                UUID id = i % 2 == 0 ? first : second;
+                threads.submit(() -> lastLoginRecorder.record(id, loginAt));
+            }
+        }
+        assertEquals(2, lastLoginRecorder.getPendingCount());
+
+        lastLoginRecorder.flush();
+        lastLoginRecorder.record(first, base);
+        lastLoginRecorder.flush();
+
+        assertEquals(base.plusSeconds(1_000), userRepository.findById(first).orElseThrow().getLastLogin());
+        assertEquals(base.plusSeconds(999), userRepository.findById(second).orElseThrow().getLastLogin());
+    }
+
+    /**
+     * Test case for a graceful shutdown. It starts an application of its own
+     * on a database that outlives it, logs in, and closes the application
+     * before any periodic flush. It verifies that the buffered timestamp was
+     * written to {@code last_login} on the way down.
+     */
+    @Test
+    void testShutdown_FlushesPendingLogins() {
+        String url = "jdbc:h2:mem:lastloginshutdown;DB_CLOSE_DELAY=-1";
+        UUID id;
+        LocalDateTime loginAt;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiUserManagement.class)
+                .profiles("test")
+                .run("--server.port=0", "--spring.datasource.url=" + url,
+                        "--users.last-login.flush-interval-ms=3600000")) {
+            UserService service = context.getBean(UserService.class);
+            id = register(service, "shutdown@example.com").getId();
+            loginAt = service.login(credentials("shutdown@example.com")).getLastLogin();
+            assertEquals(1, context.getBean(LastLoginRecorder.class).getPendingCount());
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        assertEquals(loginAt, jdbcTemplate.queryForObject(
+                "select last_login from users where id = ?", LocalDateTime.class, id));
+    }
+
+    private UserResponseDTO register(String email) {
+        return register(userService, email);
+    }
+
+    private static UserResponseDTO register(UserService service, String email) {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Login User");
+        userRequestDTO.setEmail(email);
+        userRequestDTO.setPassword("password123");
+        userRequestDTO.setPhones(new ArrayList<>());
+        return service.registerUser(userRequestDTO);
+    }
+
+    private LoginRequestDTO credentials(String email) {
+        LoginRequestDTO loginRequestDTO = new LoginRequestDTO();
+        loginRequestDTO.setEmail(email);
+        loginRequestDTO.setPassword("password123");
+        return loginRequestDTO;
+    }
+}
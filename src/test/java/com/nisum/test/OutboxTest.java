@@ -0,0 +1,177 @@
+package com.nisum.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.exception.email.EmailAlreadyExistsException;
+import com.nisum.outbox.OutboxRelay;
+import com.nisum.repository.OutboxRepository;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.Bulkhead;
+import com.nisum.utils.UserShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the transactional outbox: every registration writes a
+ * {@code UserRegistered} event in its own transaction, and the relay delivers
+ * pending events to the file sink, deletes them, and leaves them in place
+ * when the sink fails or another relay holds them. The test profile keeps
+ * the periodic relay from running, so the tests relay explicitly.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {
+        "outbox.relay.batch-size=2",
+        "outbox.sink=file",
+        "outbox.file.path=${java.io.tmpdir}/outbox-test/events.jsonl"})
+@ActiveProfiles("test")
+class OutboxTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserShards userShards;
+
+    @Autowired
+    @Qualifier("dbBulkhead")
+    private Bulkhead dbBulkhead;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.file.path}")
+    private Path eventsFile;
+
+    /**
+     * Setup method to clear the database, the outbox and the sink file before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        outboxRepository.deleteAll();
+        userRepository.deleteAll();
+        Files.deleteIfExists(eventsFile);
+    }
+
+    /**
+     * Test case for a registration. It verifies that the event is written
+     * with the user, but not delivered until the relay runs, and that the
+     * relay delivers every event in batches, deletes them and counts them.
+     */
+    @Test
+    void testRegisterUser_EventRelayedToSink() throws Exception {
+        double deliveredBefore = meterRegistry.get("outbox.relay.delivered").counter().count();
+        List<UserResponseDTO> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(userService.registerUser(request("outbox" + i + "@example.com")));
+        }
+        assertEquals(3, outboxRepository.count());
+        assertFalse(Files.exists(eventsFile));
+
+        assertEquals(3, outboxRelay.relay());
+
+        assertEquals(0, outboxRepository.count());
+        List<String> lines = Files.readAllLines(eventsFile);
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("UserRegistered", first.get("type").asText());
+        assertEquals(users.get(0).getId().toString(), first.get("aggregateId").asText());
+        assertEquals("outbox0@example.com", first.get("payload").get("email").asText());
+        assertNull(first.get("payload").get("password"));
+        assertEquals(deliveredBefore + 3, meterRegistry.get("outbox.relay.delivered").counter().count());
+        assertEquals(0, meterRegistry.get("outbox.relay.lag").gauge().value());
+    }
+
+    /**
+     * Test case for a rejected registration. It verifies that a duplicate
+     * email adds no event.
+     */
+    @Test
+    void testRegisterUser_NoEventWhenRejected() {
+        userService.registerUser(request("duplicate@example.com"));
+
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.registerUser(request("duplicate@example.com")));
+
+        assertEquals(1, outboxRepository.count());
+    }
+
+    /**
+     * Test case for failed deliveries and concurrent relays. It verifies that
+     * a failing sink leaves the events for the next poll, and that rows
+     * locked by another transaction are skipped rather than waited for, and
+     * that every database permit is returned.
+     */
+    @Test
+    void testRelay_KeepsFailedAndSkipsLockedEvents() throws Exception {
+        userService.registerUser(request("retry@example.com"));
+        OutboxRelay failingRelay = new OutboxRelay(dataSource, transactionManager, events -> {
+            throw new IllegalStateException("downstream unavailable");
+        }, userShards, new SimpleMeterRegistry(), 10);
+
+        assertEquals(0, failingRelay.relay());
+        assertEquals(1, outboxRepository.count());
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                 ResultSet locked = statement.executeQuery("select id from outbox for update")) {
+                assertTrue(locked.next());
+                assertEquals(0, outboxRelay.relay());
+            }
+            connection.rollback();
+        }
+
+        assertEquals(1, outboxRelay.relay());
+        assertEquals(0, outboxRepository.count());
+        assertEquals(dbBulkhead.getPermits(), dbBulkhead.getAvailablePermits());
+    }
+
+    private UserRequestDTO request(String email) {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Outbox User");
+        userRequestDTO.setEmail(email);
+        userRequestDTO.setPassword("password123");
+        return userRequestDTO;
+    }
+}
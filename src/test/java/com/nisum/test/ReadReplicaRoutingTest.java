@@ -0,0 +1,159 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.exception.user.UserNotFoundException;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests read/write splitting with the {@code replica} profile.
+ * The replica is a separate in-memory database that is never written by the
+ * application, which makes it a replica lagging forever: whatever a read
+ * finds there proves it was routed to the replica, and whatever it does not
+ * find proves the replica was bypassed when it should be.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "datasource.read-your-writes-ms=500",
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.minimum-idle=1",
+        "users.cache.max-size=0"})
+@ActiveProfiles({"test", "replica"})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicatest;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate replica;
+
+    /**
+     * Setup method to clear both databases before each test, creating the
+     * replica's schema the first time.
+     */
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("delete from users");
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for the pool settings. It verifies that both pools get every
+     * {@code spring.datasource.hikari} property, and that each one has its
+     * own bulkhead with as many permits as connections, all free once the
+     * reads are done.
+     */
+    @Test
+    void testPools_ConfiguredAndGuardedOneByOne() {
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(UUID.randomUUID()));
+
+        for (String pool : new String[]{"primary", "replica"}) {
+            assertEquals(3.0, meterRegistry.get("hikaricp.connections.max").tag("pool", pool).gauge().value());
+            assertEquals(1.0, meterRegistry.get("hikaricp.connections.min").tag("pool", pool).gauge().value());
+            assertEquals(3.0, meterRegistry.get("bulkhead.available").tag("name", "db-" + pool).gauge().value());
+        }
+    }
+
+    /**
+     * Test case for the routing of reads. It verifies that a user present
+     * only in the replica is found by the read-only lookups and that the
+     * connection was counted as a replica one.
+     */
+    @Test
+    void testReadOnlyLookup_ReadsReplica() {
+        double replicaConnections = meterRegistry.counter("datasource.routing", "target", "replica").count();
+        UUID id = UUID.randomUUID();
+        replica.update("insert into users (id, name, email, password, is_active) values (?, ?, ?, ?, true)",
+                id, "Replica User", "replica@example.com", "hash");
+
+        assertEquals("Replica User", userService.getUser(id).getName());
+        assertEquals(id, userService.getUserByEmail("Replica@Example.com").getId());
+        assertTrue(userRepository.findById(id).isPresent());
+        assertTrue(meterRegistry.counter("datasource.routing", "target", "replica").count()
+                >= replicaConnections + 3);
+    }
+
+    /**
+     * Test case for the read-your-writes window. It verifies that a user
+     * just registered on the primary is read back from it, and that once the
+     * window is over reads go to the replica again, which never got the user.
+     */
+    @Test
+    void testRegistration_ReadsOwnWritesWithinWindow() throws InterruptedException {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Primary User");
+        userRequestDTO.setEmail("primary@example.com");
+        userRequestDTO.setPassword("password123");
+        userRequestDTO.setPhones(new ArrayList<>());
+        UserResponseDTO registered = userService.registerUser(userRequestDTO);
+
+        assertEquals("Primary User", userService.getUser(registered.getId()).getName());
+        assertEquals(registered.getId(), userService.getUserByEmail("primary@example.com").getId());
+
+        Thread.sleep(700);
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(registered.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("primary@example.com"));
+    }
+
+    /**
+     * Test case for the failover. It verifies that read-only connections come
+     * from the primary while the replica refuses connections, and that each
+     * of them is counted as a failover.
+     */
+    @Test
+    void testUnavailableReplica_FailsOverToPrimary() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                new DriverManagerDataSource(REPLICA_URL, "sa", ""),
+                new DriverManagerDataSource("jdbc:h2:mem:missingreplica;IFEXISTS=TRUE", "sa", ""),
+                Duration.ofMinutes(1), registry);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            for (int i = 0; i < 2; i++) {
+                try (Connection connection = routing.getConnection()) {
+                    assertTrue(connection.getMetaData().getURL().startsWith("jdbc:h2:mem:replicatest"));
+                }
+            }
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+
+        assertEquals(2, registry.counter("datasource.replica.failovers").count());
+        assertEquals(2, registry.counter("datasource.routing", "target", "primary").count());
+        assertEquals(0, registry.counter("datasource.routing", "target", "replica").count());
+    }
+}
@@ -0,0 +1,88 @@
+package com.nisum.test;
+
+import com.nisum.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests the back-pressure of the password hashing pool: once
+ * its thread and its queue are taken, a registration is answered at once
+ * with 503 and {@code Retry-After} instead of waiting.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {"hashing.pool.size=1", "hashing.pool.queue-capacity=1",
+        "hashing.retry-after-seconds=3"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RegistrationBusyTest {
+
+    private static final String REQUEST =
+            "{\"name\":\"Busy User\",\"email\":\"busy@example.com\",\"password\":\"password123\",\"phones\":[]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private ThreadPoolExecutor passwordHashingExecutor;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for a saturated hashing pool. It verifies the 503 response,
+     * its {@code Retry-After} header and message, and that no user is saved.
+     */
+    @Test
+    void testRegisterUser_HashingPoolSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 2; i++) {
+                passwordHashingExecutor.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertEquals(0, passwordHashingExecutor.getQueue().remainingCapacity());
+
+            mockMvc.perform(post("/users/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(REQUEST))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                    .andExpect(jsonPath("$.error").value("El servicio está ocupado, intente nuevamente en unos segundos"));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(0, userRepository.count());
+    }
+}
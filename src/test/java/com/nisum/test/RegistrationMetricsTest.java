@@ -0,0 +1,85 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests the registration metrics published on the Prometheus
+ * endpoint: per-stage timers, error counters and the connection pool and
+ * Hibernate statistics.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class RegistrationMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for the scrape endpoint. It verifies that it is reachable
+     * without a token and exposes a histogram for every registration stage,
+     * the error counters and the pool and Hibernate gauges.
+     */
+    @Test
+    void testPrometheus_ExposesRegistrationMetrics() throws Exception {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Metered User");
+        userRequestDTO.setEmail("metered@example.com");
+        userRequestDTO.setPassword("password123");
+        userRequestDTO.setPhones(new ArrayList<>());
+        userService.registerUser(userRequestDTO);
+
+        mockMvc.perform(post("/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"x\",\"email\":\"invalid-email\",\"password\":\"password123\"}"))
+                .andExpect(status().isBadRequest());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        for (String stage : new String[]{"validation", "duplicate_check", "hashing", "token", "insert"}) {
+            assertTrue(scrape.contains("registration_stage_seconds_bucket{stage=\"" + stage + "\""), stage);
+        }
+        assertTrue(scrape.contains("api_errors_total{exception=\"InvalidEmailException\",status=\"400\""), "api.errors");
+        assertTrue(scrape.contains("hikaricp_connections_active"), "hikaricp");
+        assertTrue(scrape.contains("hibernate_statements_total"), "hibernate");
+    }
+}
@@ -0,0 +1,42 @@
+package com.nisum.test;
+
+import com.nisum.utils.ScalableBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the scalable Bloom filter backing the email existence
+ * check: it must never report an added value as absent, must grow past its
+ * initial capacity and must keep the false positive rate near the target.
+ *
+ * @author avasquez
+ */
+class ScalableBloomFilterTest {
+
+    /**
+     * Test case for growth beyond the initial capacity. It verifies that every
+     * added value is still reported as possibly present and that the measured
+     * false positive rate stays within the configured bound.
+     */
+    @Test
+    void testFilter_GrowsWithoutFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        assertTrue(filter.sliceCount() > 1);
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 20_000 * 0.02, "false positives: " + falsePositives);
+    }
+}
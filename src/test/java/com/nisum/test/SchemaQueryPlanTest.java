@@ -0,0 +1,83 @@
+package com.nisum.test;
+
+import com.nisum.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the Flyway-managed schema: lookups by email and by phone
+ * owner must be served by indexes, and the email constraints must hold.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Setup method that fills the users table, so the planner has real rows to choose from.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), "user" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, is_active) VALUES (?, ?, TRUE)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * Test case for the email lookup plan. It verifies that finding a user by
+     * email uses the unique email index instead of a table scan.
+     */
+    @Test
+    void testFindByEmail_UsesEmailIndex() {
+        String plan = explain("SELECT * FROM users WHERE email = 'user42@example.com'");
+        assertTrue(plan.contains("UX_USERS_EMAIL"), plan);
+    }
+
+    /**
+     * Test case for the phones lookup plan. It verifies that loading the phones
+     * of a user uses the foreign key index.
+     */
+    @Test
+    void testFindPhonesByUser_UsesUserIdIndex() {
+        String plan = explain("SELECT * FROM phones WHERE user_id = '" + UUID.randomUUID() + "'");
+        assertTrue(plan.contains("IX_PHONES_USER_ID"), plan);
+    }
+
+    /**
+     * Test case for the email constraints. It verifies that the database rejects
+     * duplicate emails and emails that are not normalized.
+     */
+    @Test
+    void testEmailConstraints_RejectDuplicatesAndUnnormalized() {
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO users (id, email, is_active) VALUES (?, 'user1@example.com', TRUE)", UUID.randomUUID()));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO users (id, email, is_active) VALUES (?, 'Mixed@Example.com', TRUE)", UUID.randomUUID()));
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)).toUpperCase();
+    }
+}
@@ -0,0 +1,341 @@
+package com.nisum.test;
+
+import com.nisum.config.ShardingEndpoint;
+import com.nisum.dto.login.LoginRequestDTO;
+import com.nisum.dto.registration.BatchRegistrationResultDTO;
+import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.dto.user.UserDetailsDTO;
+import com.nisum.entity.id.ShardBuckets;
+import com.nisum.entity.id.UuidV7Generator;
+import com.nisum.service.UserService;
+import com.nisum.utils.MessagesHelper;
+import com.nisum.utils.ShardRebalancer;
+import com.nisum.utils.UserShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.EndpointId;
+import org.springframework.boot.actuate.endpoint.web.PathMappedEndpoints;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the sharded user store over four in-memory H2
+ * databases, in the middle of a growth from two shards: registrations and
+ * lookups touch the shard of the user's email, ids carry that shard, phone
+ * ids stay unique across shards, exports merge every shard in id order, and
+ * the rebalancer moves the users still on the shard that owned them before,
+ * through an endpoint exposed over JMX only.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {
+        "sharding.urls=jdbc:h2:mem:shardtest0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shardtest1;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shardtest2;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shardtest3;DB_CLOSE_DELAY=-1",
+        "sharding.previous-count=2",
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.minimum-idle=1",
+        "users.cache.max-size=0",
+        "spring.jmx.enabled=true"}) // disabled in tests unless set
+@ActiveProfiles({"test", "sharding"})
+class ShardingTest {
+
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserShards userShards;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ShardingEndpoint shardingEndpoint;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PathMappedEndpoints pathMappedEndpoints;
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+
+    /**
+     * Setup method to clear every shard before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        shards.clear();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                    new DriverManagerDataSource("jdbc:h2:mem:shardtest" + shard, "sa", ""));
+            jdbcTemplate.update("delete from users");
+            jdbcTemplate.update("delete from outbox");
+            shards.add(jdbcTemplate);
+        }
+    }
+
+    /**
+     * Test case for single-shard registrations. It verifies that each user,
+     * with its outbox event, is stored on the shard of its email only, that
+     * its id resolves to the same shard, and that it can be looked up and
+     * can log in.
+     */
+    @Test
+    void testRegistration_TouchesOneShard() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            String email = "sharded" + i + "@example.com";
+            UserResponseDTO registered = userService.registerUser(request(email));
+            int shard = userShards.shardOf(email);
+            used.add(shard);
+
+            assertEquals(ShardBuckets.of(email), ShardBuckets.of(registered.getId()));
+            assertEquals(shard, userShards.shardOf(registered.getId()));
+            for (int other = 0; other < SHARDS; other++) {
+                long expected = other == shard ? 1 : 0;
+                assertEquals(expected, count(other, "users where id = ?", registered.getId()));
+                assertEquals(expected, count(other, "outbox where aggregate_id = ?", registered.getId()));
+            }
+            assertEquals(email, userService.getUser(registered.getId()).getEmail());
+            assertEquals(registered.getId(), userService.getUserByEmail(email.toUpperCase()).getId());
+
+            LoginRequestDTO login = new LoginRequestDTO();
+            login.setEmail(email);
+            login.setPassword("password123");
+            assertEquals(registered.getId(), userService.login(login).getId());
+        }
+        assertTrue(used.size() > 1);
+    }
+
+    /**
+     * Test case for the shard pools. It verifies that every pool gets every
+     * {@code spring.datasource.hikari} property, and that each one has its
+     * own bulkhead with as many permits as connections, all free again after
+     * an export that held a connection of each shard.
+     */
+    @Test
+    void testPools_ConfiguredAndGuardedPerShard() {
+        userService.exportUsers(null, user -> {
+        });
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            String pool = "shard-" + shard;
+            assertEquals(3.0, meterRegistry.get("hikaricp.connections.max").tag("pool", pool).gauge().value());
+            assertEquals(1.0, meterRegistry.get("hikaricp.connections.min").tag("pool", pool).gauge().value());
+            assertEquals(3.0, meterRegistry.get("bulkhead.available").tag("name", "db-" + pool).gauge().value());
+        }
+    }
+
+    /**
+     * Test case for the fan-out queries. It verifies that a batch spread over
+     * the shards is exported as a single sequence in id order, that an export
+     * resumes after a given id, and that the per-shard counts add up.
+     */
+    @Test
+    void testExport_MergesShardsInIdOrder() {
+        List<UserRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(request("batch" + i + "@example.com"));
+        }
+        requests.add(request("batch0@example.com"));
+        List<BatchRegistrationResultDTO> results = new ArrayList<>();
+        userService.registerUsersBatch(requests.iterator(), MessagesHelper.DEFAULT_LOCALE, results::add);
+        assertEquals(BatchRegistrationResultDTO.Status.EMAIL_ALREADY_REGISTERED, results.get(20).getStatus());
+        List<UUID> ids = results.subList(0, 20).stream()
+                .map(BatchRegistrationResultDTO::getId)
+                .sorted(Comparator.comparing(UUID::toString))
+                .toList();
+
+        List<UUID> exported = new ArrayList<>();
+        userService.exportUsers(null, user -> exported.add(user.getId()));
+        assertEquals(ids, exported);
+
+        List<UUID> resumed = new ArrayList<>();
+        userService.exportUsers(ids.get(9), user -> resumed.add(user.getId()));
+        assertEquals(ids.subList(10, 20), resumed);
+
+        @SuppressWarnings("unchecked")
+        List<Long> users = (List<Long>) shardingEndpoint.shards().get("users");
+        assertEquals(SHARDS, users.size());
+        assertEquals(20, users.stream().mapToLong(Long::longValue).sum());
+        Set<Long> phoneIds = new HashSet<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(count(shard, "users"), users.get(shard));
+            phoneIds.addAll(shards.get(shard).queryForList("select id from phones", Long.class));
+        }
+        assertEquals(20, phoneIds.size());
+    }
+
+    /**
+     * Test case for growing the store. It verifies that users still on the
+     * shard that owned them with two shards are found there, that the
+     * rebalance moves them with their phones to their shard, and that a
+     * second rebalance has nothing left to move.
+     */
+    @Test
+    void testRebalance_MovesUsersToTheirShard() {
+        List<UUID> misplaced = new ArrayList<>();
+        for (int i = 0; misplaced.size() < 6; i++) {
+            String email = "moving" + i + "@example.com";
+            int[] candidates = userShards.shardsOf(email);
+            if (candidates.length == 2) {
+                misplaced.add(insertUser(candidates[1], email, i));
+            }
+        }
+        for (UUID id : misplaced) {
+            UserDetailsDTO user = userService.getUser(id);
+            assertEquals(1, user.getPhones().size());
+            assertEquals(id, userService.getUserByEmail(user.getEmail()).getId());
+        }
+
+        assertEquals(misplaced.size(), shardRebalancer.rebalance());
+
+        for (UUID id : misplaced) {
+            int shard = userShards.shardOf(id);
+            for (int other = 0; other < SHARDS; other++) {
+                long expected = other == shard ? 1 : 0;
+                assertEquals(expected, count(other, "users where id = ?", id));
+                assertEquals(expected, count(other, "phones where user_id = ?", id));
+            }
+            assertEquals(1, userService.getUser(id).getPhones().size());
+        }
+        assertEquals(0, shardRebalancer.rebalance());
+    }
+
+    /**
+     * Test case for a login time written while a user is being moved. It
+     * verifies that the rebalancer waits for the update holding the original
+     * row, and copies the row as updated.
+     */
+    @Test
+    void testRebalance_WaitsForRowBeingUpdated() throws Exception {
+        String email = misplacedEmail();
+        int previous = userShards.shardsOf(email)[1];
+        UUID id = insertUser(previous, email, 0);
+        LocalDateTime loginAt = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        Future<Long> rebalance;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:shardtest" + previous, "sa", "");
+             ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement("update users set last_login = ? where id = ?")) {
+                update.setObject(1, loginAt);
+                update.setObject(2, id);
+                update.executeUpdate();
+            }
+            rebalance = executor.submit(() -> shardRebalancer.rebalance());
+            while (shards.get(previous).queryForObject(
+                    "select count(*) from information_schema.sessions where blocker_id is not null", Long.class) == 0) {
+                assertFalse(rebalance.isDone());
+                Thread.sleep(10);
+            }
+            connection.commit();
+            assertEquals(1L, rebalance.get(10, TimeUnit.SECONDS));
+        }
+
+        int shard = userShards.shardOf(id);
+        assertEquals(0, count(previous, "users where id = ?", id));
+        assertEquals(loginAt, shards.get(shard).queryForObject(
+                "select last_login from users where id = ?", LocalDateTime.class, id));
+    }
+
+    /**
+     * Test case for an export while a user is being moved. It verifies that
+     * a user found on both its previous and its current shard is exported
+     * once.
+     */
+    @Test
+    void testExport_SkipsUserBeingMoved() {
+        String email = misplacedEmail();
+        int[] candidates = userShards.shardsOf(email);
+        UUID id = insertUser(candidates[1], email, 0);
+        insertUser(candidates[0], id, email, 0);
+
+        List<UUID> exported = new ArrayList<>();
+        userService.exportUsers(null, user -> exported.add(user.getId()));
+        assertEquals(List.of(id), exported);
+    }
+
+    /**
+     * Test case for the exposure of the shards endpoint. It verifies that it
+     * has no HTTP path, while its MBean is registered.
+     */
+    @Test
+    void testEndpoint_JmxOnly() throws Exception {
+        assertNull(pathMappedEndpoints.getPath(EndpointId.of("shards")));
+
+        Set<ObjectName> mbeans = ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName("org.springframework.boot:type=Endpoint,name=Shards,*"), null);
+        assertFalse(mbeans.isEmpty());
+    }
+
+    private String misplacedEmail() {
+        for (int i = 0; ; i++) {
+            String email = "moving" + i + "@example.com";
+            if (userShards.shardsOf(email).length == 2) {
+                return email;
+            }
+        }
+    }
+
+    private UUID insertUser(int shard, String email, int phoneId) {
+        return insertUser(shard, UuidV7Generator.next(ShardBuckets.of(email)), email, phoneId);
+    }
+
+    private UUID insertUser(int shard, UUID id, String email, int phoneId) {
+        JdbcTemplate jdbcTemplate = shards.get(shard);
+        jdbcTemplate.update("insert into users (id, name, email, password, created, is_active)"
+                        + " values (?, ?, ?, ?, ?, true)",
+                id, "Moving User", email, "hash", LocalDateTime.now());
+        jdbcTemplate.update("insert into phones (id, user_id, number, city_code, country_code)"
+                        + " values (?, ?, ?, ?, ?)",
+                1_000_000 + phoneId, id, "1234567", "1", "57");
+        return id;
+    }
+
+    private long count(int shard, String from, Object... args) {
+        Map<String, Object> row = shards.get(shard).queryForMap("select count(*) as n from " + from, args);
+        return ((Number) row.get("n")).longValue();
+    }
+
+    private static UserRequestDTO request(String email) {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Sharded User");
+        userRequestDTO.setEmail(email);
+        userRequestDTO.setPassword("password123");
+        PhoneDTO phone = new PhoneDTO();
+        phone.setNumber("1234567");
+        phone.setCitycode("1");
+        phone.setCountrycode("57");
+        userRequestDTO.setPhones(List.of(phone));
+        return userRequestDTO;
+    }
+}
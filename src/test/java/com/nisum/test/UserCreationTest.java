@@ -22,7 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
 /**
  * This class tests the full flow of user registration, interacting with the actual Spring context,
  * including database operations. Tests cover successful registration, duplicate email handling,
- * invalid email format handling, and registration with phone data.
+ * invalid email format handling, registration with phone data and email normalization.
  *
  * The @SpringBootTest annotation loads the entire Spring application context for the tests.
  * The @ActiveProfiles("test") annotation ensures that the 'test' profile is used.
@@ -141,4 +141,23 @@ class UserCreationTest {
         assertTrue(savedUser.isPresent());
         assertNotNull(savedUser.get().getPhones());
     }
+
+    /**
+     * Test case for an email submitted with spaces and upper case letters.
+     * It verifies that the user is saved with the normalized email while the
+     * request DTO keeps the email as submitted.
+     */
+    @Test
+    void testRegisterUser_NormalizesWithoutChangingRequest() {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Test User");
+        userRequestDTO.setEmail("  Test@Example.COM ");
+        userRequestDTO.setPassword("password123");
+
+        UserResponseDTO responseDTO = userService.registerUser(userRequestDTO);
+
+        assertEquals("test@example.com", responseDTO.getEmail());
+        assertEquals("  Test@Example.COM ", userRequestDTO.getEmail());
+        assertTrue(userRepository.findByEmail("test@example.com").isPresent());
+    }
 }
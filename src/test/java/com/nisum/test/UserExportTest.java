@@ -0,0 +1,179 @@
+package com.nisum.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nisum.dto.user.UserDetailsDTO;
+import com.nisum.entity.Phone;
+import com.nisum.entity.User;
+import com.nisum.repository.UserRepository;
+import com.nisum.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests the streaming user export: every user is written once
+ * with all its phones, in id order, even though the persistence context is
+ * cleared while streaming, and an export can be resumed after a given id.
+ * Only administrators may export.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {"users.export.clear-interval=3", "jwt.admin-emails=Analytics@example.com"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserExportTest {
+
+    private static final int USERS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private List<UUID> orderedIds;
+
+    /**
+     * Setup method that stores users with zero, one or two phones each.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setName("User, number " + i);
+            user.setEmail("export" + i + "@example.com");
+            user.setPassword("hash");
+            user.setCreated(LocalDateTime.now());
+            user.setActive(true);
+            List<Phone> phones = new ArrayList<>();
+            for (int p = 0; p < i % 3; p++) {
+                Phone phone = new Phone();
+                phone.setNumber(i + "-" + p);
+                phone.setCityCode("1");
+                phone.setCountryCode("57");
+                phones.add(phone);
+            }
+            user.setPhones(phones);
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+        orderedIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", UUID.class);
+    }
+
+    /**
+     * Test case for the NDJSON export. It verifies that every user is written
+     * once, in id order, with all of its phones.
+     */
+    @Test
+    void testExportUsers_Ndjson() throws Exception {
+        List<UserDetailsDTO> exported = readNdjson(export(get("/users/export")));
+
+        assertEquals(orderedIds, exported.stream().map(UserDetailsDTO::getId).toList());
+        for (UserDetailsDTO user : exported) {
+            int i = Integer.parseInt(user.getEmail().replaceAll("\\D", ""));
+            assertEquals(i % 3, user.getPhones().size(), user.getEmail());
+        }
+    }
+
+    /**
+     * Test case for resuming an export. It verifies that only the users after
+     * the given id are written.
+     */
+    @Test
+    void testExportUsers_ResumesAfterId() throws Exception {
+        UUID after = orderedIds.get(9);
+        List<UserDetailsDTO> exported = readNdjson(export(get("/users/export").param("after", after.toString())));
+
+        assertEquals(orderedIds.subList(10, USERS), exported.stream().map(UserDetailsDTO::getId).toList());
+    }
+
+    /**
+     * Test case for the CSV export. It verifies the header, one line per user
+     * and the quoting of fields containing commas.
+     */
+    @Test
+    void testExportUsers_Csv() throws Exception {
+        String[] lines = export(get("/users/export").param("format", "CSV")).split("\r\n");
+
+        assertEquals(USERS + 1, lines.length);
+        assertEquals("id,name,email,created,modified,last_login,is_active,phones", lines[0]);
+        assertTrue(lines[1].startsWith(orderedIds.get(0) + ",\"User, number "), lines[1]);
+    }
+
+    /**
+     * Test case for an export requested by an ordinary user. It verifies the
+     * 403 response, while an anonymous request gets 401.
+     */
+    @Test
+    void testExportUsers_AdminOnly() throws Exception {
+        mockMvc.perform(get("/users/export")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("export0@example.com")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/users/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Test case for malformed parameters. It verifies that an unknown format
+     * or a malformed resume id is answered with 400.
+     */
+    @Test
+    void testExportUsers_InvalidParameters() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken("analytics@example.com");
+        mockMvc.perform(get("/users/export").param("format", "XML").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/export").param("after", "42").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("analytics@example.com")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private List<UserDetailsDTO> readNdjson(String body) throws Exception {
+        List<UserDetailsDTO> users = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            users.add(objectMapper.readValue(line, UserDetailsDTO.class));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,226 @@
+package com.nisum.test;
+
+import com.nisum.dto.login.LoginRequestDTO;
+import com.nisum.dto.login.LoginResponseDTO;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.entity.User;
+import com.nisum.exception.login.InvalidCredentialsException;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.BcryptCostCalibrator;
+import com.nisum.utils.JwtUtil;
+import com.nisum.utils.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests logins and the BCrypt cost handling: stored hashes record
+ * their cost, logins verify hashes of any cost and upgrade them to the
+ * current one, and the calibration stays within its bounds.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserLoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for a login with the current cost. It verifies that the stored
+     * hash records its algorithm and cost, that the issued token is valid and
+     * that the hash is left untouched.
+     */
+    @Test
+    void testLogin_Success() {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Login User");
+        userRequestDTO.setEmail("login@example.com");
+        userRequestDTO.setPassword("password123");
+        userRequestDTO.setPhones(new ArrayList<>());
+        userService.registerUser(userRequestDTO);
+        String storedHash = userRepository.findByEmail("login@example.com").orElseThrow().getPassword();
+        assertTrue(storedHash.startsWith("{bcrypt}$2a$04$"), storedHash);
+        assertFalse(passwordHasher.needsRehash(storedHash));
+
+        LoginResponseDTO response = userService.login(credentials(" Login@Example.com ", "password123"));
+
+        assertEquals("login@example.com", response.getEmail());
+        assertEquals("login@example.com", jwtUtil.verifyToken(response.getToken()).orElseThrow().subject());
+        assertEquals(storedHash, userRepository.findByEmail("login@example.com").orElseThrow().getPassword());
+    }
+
+    /**
+     * Test case for which stored hashes are replaced. It verifies that a hash
+     * without the algorithm prefix or with a lower cost is, and that one with
+     * a higher cost, as made by a node calibrating a higher cost, is kept.
+     */
+    @Test
+    void testNeedsRehash_OnlyWeakerHashes() {
+        String higherCost = new BCryptPasswordEncoder(5).encode("password123");
+
+        assertFalse(passwordHasher.needsRehash("{bcrypt}" + higherCost));
+        assertTrue(passwordHasher.needsRehash(higherCost));
+        assertTrue(passwordHasher.needsRehash("{bcrypt}$2a$03$" + higherCost.substring(7)));
+    }
+
+    /**
+     * Test case for a hash stored without the algorithm prefix. It verifies
+     * that the login succeeds and that the hash is replaced by one with the
+     * prefix and the current cost.
+     */
+    @Test
+    void testLogin_RehashesLegacyHash() throws Exception {
+        saveUser("legacy@example.com", new BCryptPasswordEncoder(4).encode("password123"));
+
+        userService.login(credentials("legacy@example.com", "password123"));
+
+        String storedHash = null;
+        for (int i = 0; i < 50; i++) {
+            storedHash = userRepository.findByEmail("legacy@example.com").orElseThrow().getPassword();
+            if (!passwordHasher.needsRehash(storedHash)) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertTrue(storedHash.startsWith("{bcrypt}$2a$04$"), storedHash);
+        userService.login(credentials("legacy@example.com", "password123"));
+    }
+
+    /**
+     * Test case for wrong credentials. It verifies that an unknown email and a
+     * wrong password are both rejected with 401 and the same message.
+     */
+    @Test
+    void testLogin_InvalidCredentials() throws Exception {
+        saveUser("known@example.com", new BCryptPasswordEncoder(4).encode("password123"));
+
+        assertThrows(InvalidCredentialsException.class,
+                () -> userService.login(credentials("known@example.com", "wrong-password")));
+        assertThrows(InvalidCredentialsException.class,
+                () -> userService.login(credentials("unknown@example.com", "password123")));
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"known@example.com\",\"password\":\"wrong-password\"}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Correo o contraseña incorrectos"));
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"known@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+    }
+
+    /**
+     * Test case for a login that has no hash to verify. It verifies that the
+     * password is still compared, for an unknown email and for an inactive
+     * user, so these answers take as long as a wrong password.
+     */
+    @Test
+    void testLogin_UnknownEmailStillHashes() {
+        User inactive = saveUser("inactive@example.com", new BCryptPasswordEncoder(4).encode("password123"));
+        inactive.setActive(false);
+        userRepository.save(inactive);
+
+        // A spy is swapped in by hand: the AOT test processing does not support @SpyBean
+        Object target = AopTestUtils.getUltimateTargetObject(userService);
+        PasswordHasher spy = spy(passwordHasher);
+        ReflectionTestUtils.setField(target, "passwordHasher", spy);
+        try {
+            assertThrows(InvalidCredentialsException.class,
+                    () -> userService.login(credentials("unknown@example.com", "password123")));
+            assertThrows(InvalidCredentialsException.class,
+                    () -> userService.login(credentials("inactive@example.com", "password123")));
+        } finally {
+            ReflectionTestUtils.setField(target, "passwordHasher", passwordHasher);
+        }
+
+        verify(spy, times(2)).matches("password123", null);
+    }
+
+    /**
+     * Test case for a login without password. It verifies the 400 response
+     * and its message.
+     */
+    @Test
+    void testLogin_MissingPassword() throws Exception {
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"known@example.com\",\"password\":\"\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("La solicitud está incompleta o es inválida"));
+    }
+
+    /**
+     * Test case for the cost calibration. It verifies that the chosen cost
+     * stays within its bounds: the maximum for an unreachable budget and the
+     * minimum for a budget no hash can meet.
+     */
+    @Test
+    void testCalibrate_StaysWithinBounds() {
+        assertEquals(6, BcryptCostCalibrator.calibrate(Duration.ofHours(1), 4, 6));
+        assertEquals(4, BcryptCostCalibrator.calibrate(Duration.ZERO, 4, 6));
+    }
+
+    private LoginRequestDTO credentials(String email, String password) {
+        LoginRequestDTO loginRequestDTO = new LoginRequestDTO();
+        loginRequestDTO.setEmail(email);
+        loginRequestDTO.setPassword(password);
+        return loginRequestDTO;
+    }
+
+    private User saveUser(String email, String passwordHash) {
+        User user = new User();
+        user.setName("Stored User");
+        user.setEmail(email);
+        user.setPassword(passwordHash);
+        user.setCreated(LocalDateTime.now());
+        user.setActive(true);
+        user.setPhones(new ArrayList<>());
+        return userRepository.save(user);
+    }
+}
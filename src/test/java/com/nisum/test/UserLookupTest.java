@@ -0,0 +1,157 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.PhoneDTO;
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.dto.registration.UserResponseDTO;
+import com.nisum.dto.user.UserDetailsDTO;
+import com.nisum.entity.Phone;
+import com.nisum.entity.User;
+import com.nisum.exception.user.UserNotFoundException;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.JwtUtil;
+import com.nisum.utils.UserDetailsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class tests the user lookup endpoints: users are loaded with their
+ * phones in a single query, served from the cache afterwards, and written
+ * through to the cache on registration.
+ *
+ * @author avasquez
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserLookupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for write-through on registration. It verifies that a freshly
+     * registered user is served from the cache on its first lookup.
+     */
+    @Test
+    void testGetUser_WrittenThroughOnRegistration() {
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setName("Cached User");
+        userRequestDTO.setEmail("cached@example.com");
+        userRequestDTO.setPassword("password123");
+        PhoneDTO phoneDTO = new PhoneDTO();
+        phoneDTO.setNumber("123456789");
+        phoneDTO.setCitycode("1");
+        phoneDTO.setCountrycode("57");
+        userRequestDTO.setPhones(new ArrayList<>(List.of(phoneDTO)));
+        UserResponseDTO registered = userService.registerUser(userRequestDTO);
+
+        long hitsBefore = userDetailsCache.getUsersById().stats().hitCount();
+        UserDetailsDTO user = userService.getUser(registered.getId());
+
+        assertEquals(hitsBefore + 1, userDetailsCache.getUsersById().stats().hitCount());
+        assertEquals("cached@example.com", user.getEmail());
+        assertEquals("123456789", user.getPhones().get(0).getNumber());
+    }
+
+    /**
+     * Test case for a cache miss. It verifies that a user saved directly in the
+     * database is loaded with its phones outside any transaction (so they must
+     * come from the same query), found by email in any case, and cached.
+     */
+    @Test
+    void testGetUser_LoadsPhonesInOneQuery() {
+        User saved = saveUserWithPhone("stored@example.com");
+
+        UserDetailsDTO byId = userService.getUser(saved.getId());
+        assertEquals(1, byId.getPhones().size());
+        assertEquals("5550000", byId.getPhones().get(0).getNumber());
+
+        long hitsBefore = userDetailsCache.getUsersById().stats().hitCount();
+        UserDetailsDTO byEmail = userService.getUserByEmail(" Stored@Example.COM ");
+        assertSame(byId, byEmail);
+        assertEquals(hitsBefore + 1, userDetailsCache.getUsersById().stats().hitCount());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(UUID.randomUUID()));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("nobody@example.com"));
+    }
+
+    /**
+     * Test case for the HTTP endpoints. It verifies that lookups return the
+     * user without its password or token, 404 for unknown users and 400 for
+     * malformed ids, with a message in the language of the request.
+     */
+    @Test
+    void testGetUser_Endpoints() throws Exception {
+        User saved = saveUserWithPhone("http@example.com");
+        String authorization = "Bearer " + jwtUtil.generateToken("reader@example.com");
+
+        mockMvc.perform(get("/users/" + saved.getId()).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("http@example.com"))
+                .andExpect(jsonPath("$.phones[0].number").value("5550000"))
+                .andExpect(jsonPath("$.encryptedPassword").doesNotExist())
+                .andExpect(jsonPath("$.token").doesNotExist());
+        mockMvc.perform(get("/users").param("email", "http@example.com").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(saved.getId().toString()));
+        mockMvc.perform(get("/users/" + UUID.randomUUID()).header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/not-a-uuid")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "en"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("A request parameter is invalid"));
+    }
+
+    private User saveUserWithPhone(String email) {
+        Phone phone = new Phone();
+        phone.setNumber("5550000");
+        phone.setCityCode("2");
+        phone.setCountryCode("593");
+        User user = new User();
+        user.setName("Stored User");
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setCreated(LocalDateTime.now());
+        user.setActive(true);
+        user.setPhones(new ArrayList<>(List.of(phone)));
+        return userRepository.save(user);
+    }
+}
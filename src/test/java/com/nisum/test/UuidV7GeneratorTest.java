@@ -0,0 +1,67 @@
+package com.nisum.test;
+
+import com.nisum.entity.id.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the version 7 UUID generator: identifiers must carry the
+ * right version and variant, embed the current time and be unique and
+ * increasing even when many threads generate them at once.
+ *
+ * @author avasquez
+ */
+class UuidV7GeneratorTest {
+
+    /**
+     * Test case for the UUID layout. It verifies the version, variant and timestamp bits.
+     */
+    @Test
+    void testNext_Layout() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 1);
+    }
+
+    /**
+     * Test case for concurrent generation. It verifies that every thread sees
+     * strictly increasing identifiers and that no identifier is issued twice.
+     */
+    @Test
+    void testNext_MonotonicAcrossThreads() throws Exception {
+        ConcurrentLinkedQueue<UUID> all = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService threads = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                futures.add(threads.submit(() -> {
+                    UUID previous = UuidV7Generator.next();
+                    all.add(previous);
+                    for (int i = 0; i < 50_000; i++) {
+                        UUID current = UuidV7Generator.next();
+                        assertTrue(Long.compareUnsigned(current.getMostSignificantBits(),
+                                previous.getMostSignificantBits()) > 0);
+                        all.add(current);
+                        previous = current;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(all.size(), all.stream().distinct().count());
+    }
+}
@@ -0,0 +1,119 @@
+package com.nisum.test;
+
+import com.nisum.dto.registration.UserRequestDTO;
+import com.nisum.repository.UserRepository;
+import com.nisum.service.UserService;
+import com.nisum.utils.Bulkhead;
+import com.nisum.utils.BulkheadDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class tests the virtual-thread mode: bulkheads must cap concurrency
+ * whatever the number of threads, and registrations issued from thousands of
+ * virtual threads must succeed without leaking database permits.
+ *
+ * @author avasquez
+ */
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "hashing.pool.queue-capacity=1000"})
+@ActiveProfiles("test")
+class VirtualThreadBulkheadTest {
+
+    private static final int REGISTRATIONS = 200;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("dbBulkhead")
+    private Bulkhead dbBulkhead;
+
+    /**
+     * Setup method to clear the database before each test. This ensures a clean state.
+     */
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Test case for the bulkhead bound. It verifies that thousands of virtual
+     * threads never run more tasks at once than the bulkhead has permits, and
+     * that callers are rejected once the wait times out.
+     */
+    @Test
+    void testBulkhead_CapsConcurrency() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 4, Duration.ofSeconds(30));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2_000; i++) {
+                futures.add(threads.submit(() -> bulkhead.call(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return running.decrementAndGet();
+                }, IllegalStateException::new)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertTrue(maxRunning.get() <= 4, "max running: " + maxRunning.get());
+
+        Bulkhead exhausted = new Bulkhead("exhausted", 1, Duration.ofMillis(10));
+        assertTrue(exhausted.tryAcquire());
+        assertThrows(IllegalStateException.class, () -> exhausted.call(() -> 1, IllegalStateException::new));
+    }
+
+    /**
+     * Test case for registrations on virtual threads. It verifies that every
+     * registration succeeds, that the data source is guarded by the database
+     * bulkhead and that all its permits are returned afterwards.
+     */
+    @Test
+    void testRegisterUser_FromVirtualThreads() throws Exception {
+        assertInstanceOf(BulkheadDataSource.class, dataSource);
+
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                int n = i;
+                futures.add(clients.submit(() -> {
+                    UserRequestDTO userRequestDTO = new UserRequestDTO();
+                    userRequestDTO.setName("Virtual User");
+                    userRequestDTO.setEmail("virtual" + n + "@example.com");
+                    userRequestDTO.setPassword("password123");
+                    return userService.registerUser(userRequestDTO);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(REGISTRATIONS, userRepository.count());
+        assertEquals(dbBulkhead.getPermits(), dbBulkhead.getAvailablePermits());
+    }
+}